@@ -4,9 +4,11 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 /**
- * Wrapper class for two lock-based concurrent list implementations.
+ * Wrapper class for lock-based concurrent list implementations that protect
+ * the whole list with a single lock.
  */
 public final class CoarseLists {
 
@@ -222,4 +224,124 @@ public final class CoarseLists {
             }
         }
     }
+
+    /**
+     * An implementation of the ListSet interface that protects the list with
+     * a StampedLock. add and remove take the write lock. contains first
+     * traverses under an optimistic read, which writes nothing shared, and
+     * only keeps its answer if no write lock was taken in the meantime;
+     * otherwise it traverses again under the read lock. Concurrent readers
+     * therefore do not update the lock's state at all, where each
+     * RWCoarseList reader increments and decrements the read-lock count.
+     *
+     * An optimistic traversal can run concurrently with a writer. It can see
+     * entries half linked or already unlinked, but since Entry.next is
+     * volatile, entries are fully built before being linked, and unlinked
+     * entries keep pointing forward, it always ends at an entry not less than
+     * the target; validation then discards its result.
+     */
+    public static final class StampedCoarseList extends ListSet {
+
+        /**
+         * Lock protecting the whole list.
+         */
+        private final StampedLock lock = new StampedLock();
+
+        /**
+         * Default constructor.
+         */
+        public StampedCoarseList() {
+            super();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean add(final Integer object) {
+            final long stamp = lock.writeLock();
+            try {
+                Entry pred = this.head;
+                Entry curr = pred.next;
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.next;
+                }
+
+                if (object.equals(curr.object)) {
+                    return false;
+                } else {
+                    final Entry entry = new Entry(object);
+                    entry.next = curr;
+                    pred.next = entry;
+                    return true;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean remove(final Integer object) {
+            final long stamp = lock.writeLock();
+            try {
+                Entry pred = this.head;
+                Entry curr = pred.next;
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.next;
+                }
+
+                if (object.equals(curr.object)) {
+                    pred.next = curr.next;
+                    return true;
+                } else {
+                    return false;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean contains(final Integer object) {
+            final long optimistic = lock.tryOptimisticRead();
+            if (optimistic != 0L) {
+                final boolean found = find(object);
+                if (lock.validate(optimistic)) {
+                    return found;
+                }
+            }
+
+            final long stamp = lock.readLock();
+            try {
+                return find(object);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Traverse the list to the first entry not less than object.
+         *
+         * @param object The integer to check for
+         * @return true if that entry holds object
+         */
+        private boolean find(final Integer object) {
+            Entry curr = this.head.next;
+
+            while (curr.object.compareTo(object) < 0) {
+                curr = curr.next;
+            }
+            return object.equals(curr.object);
+        }
+    }
 }
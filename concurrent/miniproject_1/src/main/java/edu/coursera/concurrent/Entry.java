@@ -1,18 +1,32 @@
 package edu.coursera.concurrent;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
- * A single element in any of the list implementations.
+ * A single element in any of the list implementations. Lists that lock
+ * entries individually use a subclass with a lock of its own, so that the
+ * other lists do not pay for it in every entry.
  */
-public final class Entry {
+public class Entry {
     /**
-     * The value stored in this list entry.
+     * Atomic access to the next field, for lists that update it with CAS.
+     */
+    private static final AtomicReferenceFieldUpdater<Entry, Entry> NEXT =
+        AtomicReferenceFieldUpdater.newUpdater(Entry.class, Entry.class,
+                "next");
+
+    /**
+     * The value stored in this list entry, null for the marker entries
+     * LockFreeList links behind removed entries.
      */
     public final Integer object;
 
     /**
-     * The next element in this singly linked list.
+     * The next element in this singly linked list. Volatile so that lists
+     * which traverse without holding locks see entries linked in by other
+     * threads.
      */
-    public Entry next;
+    public volatile Entry next;
 
     /**
      * The general constructor used when creating a new list entry.
@@ -22,4 +36,35 @@ public final class Entry {
     Entry(final Integer setObject) {
         this.object = setObject;
     }
+
+    /**
+     * Atomically set next to update if it is still expect.
+     *
+     * @param expect The expected current successor
+     * @param update The new successor
+     * @return true if next was expect and has been replaced
+     */
+    boolean casNext(final Entry expect, final Entry update) {
+        return NEXT.compareAndSet(this, expect, update);
+    }
+
+    /**
+     * Whether this is a marker entry rather than a value.
+     *
+     * @return true if this entry only marks its predecessor as removed
+     */
+    boolean isMarker() {
+        return object == null;
+    }
+
+    /**
+     * Whether this entry has been logically removed from a list that marks
+     * removed entries by linking a marker entry behind them.
+     *
+     * @return true if next holds a marker
+     */
+    boolean isRemoved() {
+        final Entry succ = next;
+        return succ != null && succ.isMarker();
+    }
 }
@@ -0,0 +1,428 @@
+package edu.coursera.concurrent;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wrapper class for concurrent list implementations that lock individual
+ * entries rather than the whole list, so that operations on different parts
+ * of the list can proceed at the same time.
+ */
+public final class FineGrainedLists {
+
+    /**
+     * Default constructor.
+     */
+    private FineGrainedLists() {
+    }
+
+    /**
+     * An implementation of the ListSet interface that gives every entry its
+     * own lock and traverses the list with lock coupling (hand-over-hand
+     * locking): a thread locks an entry's successor before releasing the
+     * entry, so it always holds the locks of two adjacent entries and no
+     * other thread can insert or remove between them. Threads walk the list
+     * in the same direction and acquire locks in list order, so they cannot
+     * deadlock, and a thread working further down the list never waits for
+     * one working behind it.
+     */
+    public static final class HandOverHandList extends ListSet {
+
+        /**
+         * Default constructor.
+         */
+        public HandOverHandList() {
+            super(new LockableEntry(Integer.MIN_VALUE),
+                    new LockableEntry(Integer.MAX_VALUE));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean add(final Integer object) {
+            LockableEntry pred = (LockableEntry) this.head;
+            pred.lock.lock();
+            try {
+                LockableEntry curr = pred.nextEntry();
+                curr.lock.lock();
+                try {
+                    while (curr.object.compareTo(object) < 0) {
+                        pred.lock.unlock();
+                        pred = curr;
+                        curr = curr.nextEntry();
+                        curr.lock.lock();
+                    }
+
+                    if (object.equals(curr.object)) {
+                        return false;
+                    } else {
+                        final LockableEntry entry = new LockableEntry(object);
+                        entry.next = curr;
+                        pred.next = entry;
+                        return true;
+                    }
+                } finally {
+                    curr.lock.unlock();
+                }
+            } finally {
+                pred.lock.unlock();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean remove(final Integer object) {
+            LockableEntry pred = (LockableEntry) this.head;
+            pred.lock.lock();
+            try {
+                LockableEntry curr = pred.nextEntry();
+                curr.lock.lock();
+                try {
+                    while (curr.object.compareTo(object) < 0) {
+                        pred.lock.unlock();
+                        pred = curr;
+                        curr = curr.nextEntry();
+                        curr.lock.lock();
+                    }
+
+                    if (object.equals(curr.object)) {
+                        pred.next = curr.next;
+                        return true;
+                    } else {
+                        return false;
+                    }
+                } finally {
+                    curr.lock.unlock();
+                }
+            } finally {
+                pred.lock.unlock();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean contains(final Integer object) {
+            LockableEntry pred = (LockableEntry) this.head;
+            pred.lock.lock();
+            try {
+                LockableEntry curr = pred.nextEntry();
+                curr.lock.lock();
+                try {
+                    while (curr.object.compareTo(object) < 0) {
+                        pred.lock.unlock();
+                        pred = curr;
+                        curr = curr.nextEntry();
+                        curr.lock.lock();
+                    }
+                    return object.equals(curr.object);
+                } finally {
+                    curr.lock.unlock();
+                }
+            } finally {
+                pred.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * An implementation of the ListSet interface that traverses the list
+     * without taking any locks, then locks only the two entries an operation
+     * works on. Because the entries may have changed between the traversal
+     * and the locking, the operation validates them by checking that pred
+     * is still reachable from the head and still points to curr, and starts
+     * over if not. Traversals never wait for writers; contains still takes
+     * the two locks to validate its answer.
+     */
+    public static final class OptimisticList extends ListSet {
+
+        /**
+         * Default constructor.
+         */
+        public OptimisticList() {
+            super(new LockableEntry(Integer.MIN_VALUE),
+                    new LockableEntry(Integer.MAX_VALUE));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean add(final Integer object) {
+            while (true) {
+                LockableEntry pred = (LockableEntry) this.head;
+                LockableEntry curr = pred.nextEntry();
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.nextEntry();
+                }
+
+                pred.lock.lock();
+                try {
+                    curr.lock.lock();
+                    try {
+                        if (validate(pred, curr)) {
+                            if (object.equals(curr.object)) {
+                                return false;
+                            } else {
+                                final LockableEntry entry =
+                                    new LockableEntry(object);
+                                entry.next = curr;
+                                pred.next = entry;
+                                return true;
+                            }
+                        }
+                    } finally {
+                        curr.lock.unlock();
+                    }
+                } finally {
+                    pred.lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean remove(final Integer object) {
+            while (true) {
+                LockableEntry pred = (LockableEntry) this.head;
+                LockableEntry curr = pred.nextEntry();
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.nextEntry();
+                }
+
+                pred.lock.lock();
+                try {
+                    curr.lock.lock();
+                    try {
+                        if (validate(pred, curr)) {
+                            if (object.equals(curr.object)) {
+                                pred.next = curr.next;
+                                return true;
+                            } else {
+                                return false;
+                            }
+                        }
+                    } finally {
+                        curr.lock.unlock();
+                    }
+                } finally {
+                    pred.lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean contains(final Integer object) {
+            while (true) {
+                LockableEntry pred = (LockableEntry) this.head;
+                LockableEntry curr = pred.nextEntry();
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.nextEntry();
+                }
+
+                pred.lock.lock();
+                try {
+                    curr.lock.lock();
+                    try {
+                        if (validate(pred, curr)) {
+                            return object.equals(curr.object);
+                        }
+                    } finally {
+                        curr.lock.unlock();
+                    }
+                } finally {
+                    pred.lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Check, with pred and curr locked, that pred is still in the list
+         * and still points to curr.
+         *
+         * @param pred The entry found before the target position
+         * @param curr The entry found at the target position
+         * @return true if both are still adjacent entries of the list
+         */
+        private boolean validate(final Entry pred, final Entry curr) {
+            Entry entry = this.head;
+            while (entry.object.compareTo(pred.object) <= 0) {
+                if (entry == pred) {
+                    return pred.next == curr;
+                }
+                entry = entry.next;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * An implementation of the ListSet interface that removes entries in two
+     * steps: it first marks the entry as deleted and then unlinks it. An
+     * unmarked entry is therefore always in the list, so add and remove can
+     * validate pred and curr in constant time after locking them, and
+     * contains takes no locks at all: it is wait-free, a single traversal
+     * that never retries and never waits for a writer.
+     */
+    public static final class LazyList extends ListSet {
+
+        /**
+         * Default constructor.
+         */
+        public LazyList() {
+            super(new LockableEntry(Integer.MIN_VALUE),
+                    new LockableEntry(Integer.MAX_VALUE));
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean add(final Integer object) {
+            while (true) {
+                LockableEntry pred = (LockableEntry) this.head;
+                LockableEntry curr = pred.nextEntry();
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.nextEntry();
+                }
+
+                pred.lock.lock();
+                try {
+                    curr.lock.lock();
+                    try {
+                        if (validate(pred, curr)) {
+                            if (object.equals(curr.object)) {
+                                return false;
+                            } else {
+                                final LockableEntry entry =
+                                    new LockableEntry(object);
+                                entry.next = curr;
+                                pred.next = entry;
+                                return true;
+                            }
+                        }
+                    } finally {
+                        curr.lock.unlock();
+                    }
+                } finally {
+                    pred.lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean remove(final Integer object) {
+            while (true) {
+                LockableEntry pred = (LockableEntry) this.head;
+                LockableEntry curr = pred.nextEntry();
+
+                while (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = curr.nextEntry();
+                }
+
+                pred.lock.lock();
+                try {
+                    curr.lock.lock();
+                    try {
+                        if (validate(pred, curr)) {
+                            if (object.equals(curr.object)) {
+                                curr.marked = true;
+                                pred.next = curr.next;
+                                return true;
+                            } else {
+                                return false;
+                            }
+                        }
+                    } finally {
+                        curr.lock.unlock();
+                    }
+                } finally {
+                    pred.lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean contains(final Integer object) {
+            LockableEntry curr = (LockableEntry) this.head;
+            while (curr.object.compareTo(object) < 0) {
+                curr = curr.nextEntry();
+            }
+            return object.equals(curr.object) && !curr.marked;
+        }
+
+        /**
+         * Check, with pred and curr locked, that neither has been removed and
+         * that pred still points to curr.
+         *
+         * @param pred The entry found before the target position
+         * @param curr The entry found at the target position
+         * @return true if both are still adjacent entries of the list
+         */
+        private static boolean validate(final LockableEntry pred,
+                final LockableEntry curr) {
+            return !pred.marked && !curr.marked && pred.next == curr;
+        }
+    }
+
+    /**
+     * An entry with its own lock, for the lists in this class. Only they
+     * create these, so the lists that never lock entries keep plain Entry
+     * objects without the extra fields.
+     */
+    static final class LockableEntry extends Entry {
+        /**
+         * Lock protecting this entry.
+         */
+        final Lock lock = new ReentrantLock();
+
+        /**
+         * Whether this entry has been logically removed, in lists that mark
+         * entries before unlinking them.
+         */
+        volatile boolean marked;
+
+        /**
+         * Constructor.
+         *
+         * @param setObject Value to store in this item
+         */
+        LockableEntry(final Integer setObject) {
+            super(setObject);
+        }
+
+        /**
+         * Getter for the next entry, which in these lists is always a
+         * LockableEntry too.
+         *
+         * @return The next element in the list
+         */
+        LockableEntry nextEntry() {
+            return (LockableEntry) next;
+        }
+    }
+}
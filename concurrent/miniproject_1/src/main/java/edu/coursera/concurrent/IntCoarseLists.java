@@ -0,0 +1,201 @@
+package edu.coursera.concurrent;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Wrapper class for the primitive int versions of the two lock-based
+ * concurrent lists in {@link CoarseLists}.
+ */
+public final class IntCoarseLists {
+
+    /**
+     * Default constructor.
+     */
+    private IntCoarseLists() {
+    }
+
+    /**
+     * An implementation of the IntListSet interface that uses a Java lock to
+     * protect against concurrent accesses.
+     */
+    public static final class IntCoarseList extends IntListSet {
+
+        /**
+         * Lock protecting the whole list.
+         */
+        private final Lock lock = new ReentrantLock();
+
+        /**
+         * Default constructor.
+         */
+        public IntCoarseList() {
+            super();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean add(final int value) {
+            lock.lock();
+            try {
+                IntEntry pred = this.head;
+                IntEntry curr = pred.next;
+
+                while (curr.value < value) {
+                    pred = curr;
+                    curr = curr.next;
+                }
+
+                if (curr.value == value) {
+                    return false;
+                } else {
+                    final IntEntry entry = new IntEntry(value);
+                    entry.next = curr;
+                    pred.next = entry;
+                    return true;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean remove(final int value) {
+            lock.lock();
+            try {
+                IntEntry pred = this.head;
+                IntEntry curr = pred.next;
+
+                while (curr.value < value) {
+                    pred = curr;
+                    curr = curr.next;
+                }
+
+                if (curr.value == value) {
+                    pred.next = curr.next;
+                    return true;
+                } else {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean contains(final int value) {
+            lock.lock();
+            try {
+                IntEntry curr = this.head.next;
+
+                while (curr.value < value) {
+                    curr = curr.next;
+                }
+                return curr.value == value;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * An implementation of the IntListSet interface that uses a Java
+     * read-write lock to protect against concurrent accesses.
+     */
+    public static final class IntRWCoarseList extends IntListSet {
+
+        /**
+         * Read-write lock protecting the whole list.
+         */
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * Default constructor.
+         */
+        public IntRWCoarseList() {
+            super();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean add(final int value) {
+            lock.writeLock().lock();
+            try {
+                IntEntry pred = this.head;
+                IntEntry curr = pred.next;
+
+                while (curr.value < value) {
+                    pred = curr;
+                    curr = curr.next;
+                }
+
+                if (curr.value == value) {
+                    return false;
+                } else {
+                    final IntEntry entry = new IntEntry(value);
+                    entry.next = curr;
+                    pred.next = entry;
+                    return true;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean remove(final int value) {
+            lock.writeLock().lock();
+            try {
+                IntEntry pred = this.head;
+                IntEntry curr = pred.next;
+
+                while (curr.value < value) {
+                    pred = curr;
+                    curr = curr.next;
+                }
+
+                if (curr.value == value) {
+                    pred.next = curr.next;
+                    return true;
+                } else {
+                    return false;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        boolean contains(final int value) {
+            lock.readLock().lock();
+            try {
+                IntEntry curr = this.head.next;
+
+                while (curr.value < value) {
+                    curr = curr.next;
+                }
+                return curr.value == value;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package edu.coursera.concurrent;
+
+/**
+ * A single element in any of the primitive int list implementations. It
+ * holds its value directly rather than a reference to a boxed Integer, so an
+ * entry is a single object and comparing it against a value needs no extra
+ * memory access.
+ */
+public final class IntEntry {
+    /**
+     * The value stored in this list entry.
+     */
+    public final int value;
+
+    /**
+     * The next element in this singly linked list.
+     */
+    public IntEntry next;
+
+    /**
+     * The general constructor used when creating a new list entry.
+     *
+     * @param setValue Value to store in this item
+     */
+    IntEntry(final int setValue) {
+        this.value = setValue;
+    }
+}
@@ -0,0 +1,60 @@
+package edu.coursera.concurrent;
+
+/**
+ * The primitive int counterpart of {@link ListSet}: lists that support this
+ * interface must be able to add, remove, and test for existence of int
+ * values, maintaining a sorted list of IntEntry items internally with no
+ * duplicates. Values are compared as ints, and adding a value allocates a
+ * single IntEntry and no Integer.
+ */
+public abstract class IntListSet {
+    /**
+     * Starting entry of this concurrent list.
+     */
+    protected final IntEntry head;
+
+    /**
+     * Default constructor.
+     */
+    public IntListSet() {
+        this.head = new IntEntry(Integer.MIN_VALUE);
+        this.head.next = new IntEntry(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Getter for the head of the list.
+     *
+     * @return The head of this list.
+     */
+    public IntEntry getHead() {
+        return head;
+    }
+
+    /**
+     * Add an integer value to this sorted list, ensuring uniqueness. This
+     * method must use IntListSet.head as the head of the list.
+     *
+     * @param v The integer to add.
+     * @return false if this value already exists in the list, true otherwise
+     */
+    abstract boolean add(int v);
+
+    /**
+     * Remove an integer value from this list if it exists. This method must use
+     * IntListSet.head as the head of the list.
+     *
+     * @param v The integer to remove.
+     * @return true if this value is found in the list and successfully removed,
+     *         false otherwise
+     */
+    abstract boolean remove(int v);
+
+    /**
+     * Check if this list contains the provided value. This method must use
+     * IntListSet.head as the head of the list.
+     *
+     * @param v The integer to check for.
+     * @return true if this list contains the target value, false otherwise.
+     */
+    abstract boolean contains(int v);
+}
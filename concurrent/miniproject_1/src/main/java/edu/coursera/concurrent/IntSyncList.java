@@ -0,0 +1,74 @@
+package edu.coursera.concurrent;
+
+/**
+ *  Class IntSyncList is the primitive int version of SyncList: a thread-safe
+ *  sorted list of int values that supports contains(), add() and remove()
+ *  methods.
+ *
+ *  Thread safety is guaranteed by declaring each of the methods to be
+ *  synchronized.
+ */
+public final class IntSyncList extends IntListSet {
+    /**
+     * Constructor.
+     */
+    public IntSyncList() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean contains(final int value) {
+        IntEntry pred = this.head;
+        IntEntry curr = pred.next;
+
+        while (curr.value < value) {
+            pred = curr;
+            curr = curr.next;
+        }
+        return curr.value == value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean add(final int value) {
+        IntEntry pred = this.head;
+        IntEntry curr = pred.next;
+
+        while (curr.value < value) {
+            pred = curr;
+            curr = curr.next;
+        }
+
+        if (curr.value == value) {
+            return false;
+        } else {
+            final IntEntry entry = new IntEntry(value);
+            entry.next = curr;
+            pred.next = entry;
+            return true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized boolean remove(final int value) {
+        IntEntry pred = this.head;
+        IntEntry curr = pred.next;
+
+        while (curr.value < value) {
+            pred = curr;
+            curr = curr.next;
+        }
+
+        if (curr.value == value) {
+            pred.next = curr.next;
+            return true;
+        } else {
+            return false;
+        }
+    }
+}
@@ -17,8 +17,18 @@ public abstract class ListSet {
      * Default constructor.
      */
     public ListSet() {
-        this.head = new Entry(Integer.MIN_VALUE);
-        this.head.next = new Entry(Integer.MAX_VALUE);
+        this(new Entry(Integer.MIN_VALUE), new Entry(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Constructor for lists whose entries are a subclass of Entry.
+     *
+     * @param setHead Sentinel entry holding Integer.MIN_VALUE
+     * @param setTail Sentinel entry holding Integer.MAX_VALUE
+     */
+    protected ListSet(final Entry setHead, final Entry setTail) {
+        this.head = setHead;
+        this.head.next = setTail;
     }
 
     /**
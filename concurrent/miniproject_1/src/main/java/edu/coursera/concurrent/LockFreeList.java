@@ -0,0 +1,183 @@
+package edu.coursera.concurrent;
+
+/**
+ *  Class LockFreeList implements a thread-safe sorted list data structure
+ *  that supports contains(), add() and remove() methods without any locks,
+ *  following Harris and Michael: every update is a single compare-and-set
+ *  on some entry's next field, so a thread that is preempted mid-operation
+ *  never holds anything another thread must wait for.
+ *
+ *  An entry is removed in two steps. It is first logically removed by
+ *  CASing a marker entry, whose next is the entry's successor, into its next
+ *  field; from then on no CAS expecting a real successor can succeed on that
+ *  field, so nothing can be inserted after a removed entry. It is then
+ *  physically unlinked by CASing its predecessor past it, either by the
+ *  remover or by any later traversal that runs into it. This is the marking
+ *  scheme of java.util.concurrent.ConcurrentSkipListMap: it keeps Entry.next
+ *  the only link between entries, so once all operations have completed the
+ *  list reachable from ListSet.head holds exactly the current values.
+ *
+ *  add and remove are linearizable at their successful CAS, and contains,
+ *  which never writes and never retries, at the read of the entry it
+ *  returns an answer for.
+ *
+ *  Subclasses may start searches from an entry closer to the target than
+ *  the head, as SkipListSet does, and learn of every entry added.
+ */
+public class LockFreeList extends ListSet {
+    /**
+     * Constructor.
+     */
+    public LockFreeList() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean contains(final Integer object) {
+        Entry curr = searchStart(object);
+        while (curr.object.compareTo(object) < 0) {
+            Entry next = curr.next;
+            if (next.isMarker()) {
+                next = next.next;
+            }
+            curr = next;
+        }
+        return object.equals(curr.object) && !curr.isRemoved();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean add(final Integer object) {
+        while (true) {
+            final Window window = find(object);
+            final Entry pred = window.pred;
+            final Entry curr = window.curr;
+
+            if (object.equals(curr.object)) {
+                return false;
+            } else {
+                final Entry entry = new Entry(object);
+                entry.next = curr;
+                if (pred.casNext(curr, entry)) {
+                    added(entry);
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean remove(final Integer object) {
+        while (true) {
+            final Window window = find(object);
+            final Entry pred = window.pred;
+            final Entry curr = window.curr;
+
+            if (!object.equals(curr.object)) {
+                return false;
+            }
+
+            final Entry succ = curr.next;
+            if (succ.isMarker()) {
+                // Removed by another thread since find looked at it
+                continue;
+            }
+            final Entry marker = new Entry(null);
+            marker.next = succ;
+            if (curr.casNext(succ, marker)) {
+                if (!pred.casNext(curr, succ)) {
+                    // pred changed, have find unlink curr instead
+                    find(object);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * An entry to start searching for object from: the head, or any entry
+     * a subclass knows to be before object that was not removed when read.
+     *
+     * @param object The value to search for
+     * @return An entry whose value is less than object
+     */
+    Entry searchStart(final Integer object) {
+        return this.head;
+    }
+
+    /**
+     * Called after an entry has been linked into the list by add.
+     *
+     * @param entry The new entry
+     */
+    void added(final Entry entry) {
+    }
+
+    /**
+     * Find the first entry whose value is not less than object, unlinking
+     * every removed entry met on the way.
+     *
+     * @param object The value to search for
+     * @return The entry found and its predecessor, both unremoved and
+     *         adjacent when last read
+     */
+    private Window find(final Integer object) {
+        retry:
+        while (true) {
+            Entry pred = searchStart(object);
+            Entry curr = pred.next;
+            if (curr.isMarker()) {
+                // pred was removed since searchStart read it
+                continue;
+            }
+            while (true) {
+                final Entry succ = curr.next;
+                if (succ != null && succ.isMarker()) {
+                    if (!pred.casNext(curr, succ.next)) {
+                        continue retry;
+                    }
+                    curr = succ.next;
+                } else if (curr.object.compareTo(object) < 0) {
+                    pred = curr;
+                    curr = succ;
+                } else {
+                    return new Window(pred, curr);
+                }
+            }
+        }
+    }
+
+    /**
+     * A pair of adjacent entries returned by find.
+     */
+    private static final class Window {
+        /**
+         * The last entry whose value is less than the one searched for.
+         */
+        private final Entry pred;
+
+        /**
+         * The entry after pred.
+         */
+        private final Entry curr;
+
+        /**
+         * Constructor.
+         *
+         * @param setPred The last entry whose value is less than the target
+         * @param setCurr The entry after pred
+         */
+        Window(final Entry setPred, final Entry setCurr) {
+            this.pred = setPred;
+            this.curr = setCurr;
+        }
+    }
+}
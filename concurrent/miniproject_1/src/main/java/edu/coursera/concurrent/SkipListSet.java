@@ -0,0 +1,254 @@
+package edu.coursera.concurrent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ *  Class SkipListSet implements a thread-safe sorted list data structure
+ *  that supports contains(), add() and remove() methods in expected
+ *  O(log n) steps, as a lock-free skip list.
+ *
+ *  The bottom level is the ordinary list of entries starting at
+ *  ListSet.head, updated by the LockFreeList code this class inherits:
+ *  entries are added with a CAS on their predecessor's next field, and
+ *  removed by first CASing a marker entry into their own next field and
+ *  then unlinking them. It alone decides which values are in the set, so
+ *  getHead() keeps giving the sorted list of all values once operations
+ *  have completed.
+ *
+ *  Above it, an added entry gets a tower of index nodes on a random number
+ *  of levels, each level keeping about half the entries of the level
+ *  below. Searches walk the index levels from the top to find a nearby
+ *  predecessor on the bottom level and only walk the bottom level from
+ *  there. The index levels are only hints, in the manner of
+ *  java.util.concurrent.ConcurrentSkipListMap: index nodes of removed
+ *  entries are unlinked by whichever search runs into them, and an index
+ *  node lost to a concurrent unlink only makes later searches slightly
+ *  longer.
+ */
+public final class SkipListSet extends LockFreeList {
+    /**
+     * Highest index level a tower can reach.
+     */
+    private static final int MAX_LEVEL = 30;
+
+    /**
+     * Atomic access to the top field.
+     */
+    private static final AtomicReferenceFieldUpdater<SkipListSet, HeadIndex>
+        TOP = AtomicReferenceFieldUpdater.newUpdater(SkipListSet.class,
+                HeadIndex.class, "top");
+
+    /**
+     * Index node of the head entry on the highest index level.
+     */
+    private volatile HeadIndex top;
+
+    /**
+     * Constructor.
+     */
+    public SkipListSet() {
+        super();
+        this.top = new HeadIndex(this.head, null, 1);
+    }
+
+    /**
+     * Getter for the number of index levels.
+     *
+     * @return The number of levels above the bottom list
+     */
+    public int getLevels() {
+        return top.level;
+    }
+
+    /**
+     * Start bottom-level searches from the predecessor the index levels give.
+     *
+     * @param object The value to search for
+     * @return The entry of the last index node on level 1 before object
+     */
+    @Override
+    Entry searchStart(final Integer object) {
+        return findPredecessor(object, 1).node;
+    }
+
+    /**
+     * Give a newly added entry its tower of index nodes.
+     *
+     * @param entry The new entry
+     */
+    @Override
+    void added(final Entry entry) {
+        final int level = randomLevel();
+        if (level > 0) {
+            addIndex(entry, level);
+        }
+    }
+
+    /**
+     * Number of index levels for a new entry: 0 with probability 1/2, 1 with
+     * probability 1/4, and so on.
+     *
+     * @return The height of the entry's tower of index nodes
+     */
+    private static int randomLevel() {
+        final int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(MAX_LEVEL, Integer.numberOfTrailingZeros(~bits));
+    }
+
+    /**
+     * Walk the index levels from the top down to the given level, unlinking
+     * index nodes of removed entries on the way.
+     *
+     * @param object The value to search for
+     * @param level The index level to stop at, at least 1
+     * @return The last index node on that level whose entry's value is less
+     *         than object and was not removed when last read
+     */
+    private Index findPredecessor(final Integer object, final int level) {
+        retry:
+        while (true) {
+            final HeadIndex h = top;
+            Index q = h;
+            int lvl = h.level;
+            while (true) {
+                final Index r = q.right;
+                if (r != null) {
+                    final Entry n = r.node;
+                    if (n.isRemoved()) {
+                        if (!q.casRight(r, r.right)) {
+                            continue retry;
+                        }
+                        continue;
+                    } else if (n.object.compareTo(object) < 0) {
+                        q = r;
+                        continue;
+                    }
+                }
+                if (lvl <= level) {
+                    return q;
+                }
+                q = q.down;
+                lvl--;
+            }
+        }
+    }
+
+    /**
+     * Build a tower of index nodes for a newly added entry and link it into
+     * the index levels, adding one level on top if the tower is the first to
+     * reach it.
+     *
+     * @param entry The entry, already in the bottom level
+     * @param height The tower's number of levels
+     */
+    private void addIndex(final Entry entry, final int height) {
+        HeadIndex h = top;
+        final int level = Math.min(height, h.level + 1);
+
+        final Index[] tower = new Index[level + 1];
+        for (int i = 1; i <= level; i++) {
+            tower[i] = new Index(entry, tower[i - 1]);
+        }
+
+        int linked = level;
+        while (level > h.level) {
+            final HeadIndex newTop = new HeadIndex(this.head, h, level);
+            newTop.right = tower[level];
+            if (TOP.compareAndSet(this, h, newTop)) {
+                linked = level - 1;
+                break;
+            }
+            h = top;
+        }
+
+        for (int i = 1; i <= linked; i++) {
+            while (true) {
+                if (entry.isRemoved()) {
+                    return;
+                }
+                final Index q = findPredecessor(entry.object, i);
+                final Index r = q.right;
+                if (r != null && r.node.object.compareTo(entry.object) < 0) {
+                    continue;
+                }
+                tower[i].right = r;
+                if (q.casRight(r, tower[i])) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * A node on an index level, pointing to a bottom-level entry.
+     */
+    private static class Index {
+        /**
+         * Atomic access to the right field.
+         */
+        private static final AtomicReferenceFieldUpdater<Index, Index> RIGHT =
+            AtomicReferenceFieldUpdater.newUpdater(Index.class, Index.class,
+                    "right");
+
+        /**
+         * The entry this node indexes.
+         */
+        final Entry node;
+
+        /**
+         * The node for the same entry one level down, null on level 1.
+         */
+        final Index down;
+
+        /**
+         * The next node on this level.
+         */
+        volatile Index right;
+
+        /**
+         * Constructor.
+         *
+         * @param setNode The entry this node indexes
+         * @param setDown The node for the same entry one level down
+         */
+        Index(final Entry setNode, final Index setDown) {
+            this.node = setNode;
+            this.down = setDown;
+        }
+
+        /**
+         * Atomically set right to update if it is still expect.
+         *
+         * @param expect The expected current right neighbour
+         * @param update The new right neighbour
+         * @return true if right was expect and has been replaced
+         */
+        final boolean casRight(final Index expect, final Index update) {
+            return RIGHT.compareAndSet(this, expect, update);
+        }
+    }
+
+    /**
+     * The index node of the head entry on some level.
+     */
+    private static final class HeadIndex extends Index {
+        /**
+         * The level of this node, 1 for the lowest index level.
+         */
+        final int level;
+
+        /**
+         * Constructor.
+         *
+         * @param setNode The head entry
+         * @param setDown The head's index node one level down
+         * @param setLevel The level of this node
+         */
+        HeadIndex(final Entry setNode, final Index setDown,
+                final int setLevel) {
+            super(setNode, setDown);
+            this.level = setLevel;
+        }
+    }
+}
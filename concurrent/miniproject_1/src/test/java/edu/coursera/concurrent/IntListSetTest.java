@@ -0,0 +1,109 @@
+package edu.coursera.concurrent;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import edu.coursera.concurrent.CoarseLists.CoarseList;
+import edu.coursera.concurrent.IntCoarseLists.IntCoarseList;
+import edu.coursera.concurrent.IntCoarseLists.IntRWCoarseList;
+
+public class IntListSetTest extends TestCase {
+    /*
+     * Run MixedWorkload on a new list, then check the list's final
+     * contents.
+     */
+    private static void checkMixedWorkload(final Supplier<IntListSet> factory,
+            final String lbl) throws InterruptedException {
+        final IntListSet list = factory.get();
+        final TreeSet<Integer> all = MixedWorkload.run(
+                new MixedWorkload.SetOps() {
+                    public boolean add(final int key) {
+                        return list.add(key);
+                    }
+
+                    public boolean remove(final int key) {
+                        return list.remove(key);
+                    }
+
+                    public boolean contains(final int key) {
+                        return list.contains(key);
+                    }
+                }, lbl);
+
+        IntEntry curr = list.getHead().next;
+        for (Integer key : all) {
+            assertEquals(lbl + " list contents", key.intValue(), curr.value);
+            curr = curr.next;
+        }
+        assertEquals(lbl + " list end", Integer.MAX_VALUE, curr.value);
+        assertNull(lbl + " list end", curr.next);
+    }
+
+    public void testIntSyncList() throws InterruptedException {
+        checkMixedWorkload(() -> new IntSyncList(), "IntSyncList");
+    }
+
+    public void testIntCoarseList() throws InterruptedException {
+        checkMixedWorkload(() -> new IntCoarseList(), "IntCoarseList");
+    }
+
+    public void testIntRWCoarseList() throws InterruptedException {
+        checkMixedWorkload(() -> new IntRWCoarseList(), "IntRWCoarseList");
+    }
+
+    /*
+     * Single-threaded traversal cost of the int list against the boxed one,
+     * on the same random values. Both walks are bound by the chain of
+     * dependent loads of next fields, so the int list mainly saves memory
+     * and allocation rather than traversal time.
+     */
+    public void testTraversalAgainstBoxed() {
+        final int size = 10_000;
+        final int range = 80_000;
+        final int lookups = 20_000;
+        final IntCoarseList intList = new IntCoarseList();
+        final CoarseList boxedList = new CoarseList();
+        final Random fill = new Random(0);
+        for (int i = 0; i < size; i++) {
+            final int v = fill.nextInt(range);
+            assertEquals(boxedList.add(v), intList.add(v));
+        }
+
+        for (int r = 0; r < 5; r++) {
+            final int[] values = new int[lookups];
+            final Integer[] boxed = new Integer[lookups];
+            final Random rand = new Random(r + 1);
+            for (int i = 0; i < lookups; i++) {
+                values[i] = rand.nextInt(range);
+                boxed[i] = values[i];
+            }
+
+            long start = System.nanoTime();
+            int intHits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (intList.contains(values[i])) {
+                    intHits++;
+                }
+            }
+            final long intTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int boxedHits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (boxedList.contains(boxed[i])) {
+                    boxedHits++;
+                }
+            }
+            final long boxedTime = System.nanoTime() - start;
+
+            assertEquals(boxedHits, intHits);
+            System.out.println(lookups + " contains on " + size
+                    + " values: IntCoarseList " + (intTime / 1e6)
+                    + " ms, CoarseList " + (boxedTime / 1e6) + " ms ("
+                    + ((double) boxedTime / intTime) + "x)");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.coursera.concurrent;
+
+import junit.framework.TestCase;
+
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import edu.coursera.concurrent.FineGrainedLists.HandOverHandList;
+import edu.coursera.concurrent.FineGrainedLists.LazyList;
+import edu.coursera.concurrent.FineGrainedLists.OptimisticList;
+
+/*
+ * Mixed concurrent add/remove/contains workloads. Unlike ListSetTest, which
+ * runs adds, contains and removes in separate phases, these interleave all
+ * three on neighbouring entries, as described in MixedWorkload.
+ */
+public class ListSetStressTest extends TestCase {
+    private static void checkMixedWorkload(final Supplier<ListSet> factory,
+            final String lbl) throws InterruptedException {
+        final ListSet list = factory.get();
+        final TreeSet<Integer> all = MixedWorkload.run(
+                new MixedWorkload.SetOps() {
+                    public boolean add(final int key) {
+                        return list.add(key);
+                    }
+
+                    public boolean remove(final int key) {
+                        return list.remove(key);
+                    }
+
+                    public boolean contains(final int key) {
+                        return list.contains(key);
+                    }
+                }, lbl);
+
+        Entry curr = list.getHead().next;
+        for (Integer key : all) {
+            assertEquals(lbl + " list contents", key, curr.object);
+            curr = curr.next;
+        }
+        assertEquals(lbl + " list end", Integer.valueOf(Integer.MAX_VALUE),
+                curr.object);
+        assertNull(lbl + " list end", curr.next);
+    }
+
+    public void testCoarseList() throws InterruptedException {
+        checkMixedWorkload(() -> new CoarseLists.CoarseList(), "CoarseList");
+    }
+
+    public void testHandOverHandList() throws InterruptedException {
+        checkMixedWorkload(() -> new HandOverHandList(), "HandOverHandList");
+    }
+
+    public void testOptimisticList() throws InterruptedException {
+        checkMixedWorkload(() -> new OptimisticList(), "OptimisticList");
+    }
+
+    public void testLazyList() throws InterruptedException {
+        checkMixedWorkload(() -> new LazyList(), "LazyList");
+    }
+
+    public void testLockFreeList() throws InterruptedException {
+        checkMixedWorkload(() -> new LockFreeList(), "LockFreeList");
+    }
+
+    public void testSkipListSet() throws InterruptedException {
+        checkMixedWorkload(() -> new SkipListSet(), "SkipListSet");
+    }
+
+    public void testStampedCoarseList() throws InterruptedException {
+        checkMixedWorkload(() -> new CoarseLists.StampedCoarseList(),
+                "StampedCoarseList");
+    }
+}
@@ -11,6 +11,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import edu.coursera.concurrent.CoarseLists.CoarseList;
 import edu.coursera.concurrent.CoarseLists.RWCoarseList;
+import edu.coursera.concurrent.CoarseLists.StampedCoarseList;
+import edu.coursera.concurrent.FineGrainedLists.HandOverHandList;
+import edu.coursera.concurrent.FineGrainedLists.LazyList;
+import edu.coursera.concurrent.FineGrainedLists.OptimisticList;
 
 public class ListSetTest extends TestCase {
     private final int randNumsLength = 10_000;
@@ -134,6 +138,206 @@ public class ListSetTest extends TestCase {
                 expectedContains, expectedRemove, "Small");
     }
 
+    public void testHandOverHandRandomLarge() throws InterruptedException {
+        final SequenceGenerator addSeq = new RandomSequenceGenerator(0,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator containsSeq = new RandomSequenceGenerator(1,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RandomSequenceGenerator(2, getNCores() * randNumsLength, randNumRange));
+
+        compareWithSyncListHelper(() -> new HandOverHandList(),
+                "HandOverHandList", addSeq, containsSeq, removeSeq, "Large");
+    }
+
+    public void testHandOverHandRepeatingSmall() throws InterruptedException {
+        final SequenceGenerator addSeq = new RepeatingSequenceGenerator(
+                getNCores() * 3 * randNumsLength, randNumsLength);
+        final SequenceGenerator containsSeq = new RepeatingSequenceGenerator(
+                getNCores() * 3 * randNumsLength, randNumsLength);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RepeatingSequenceGenerator(getNCores() * 3 * randNumsLength, randNumsLength));
+
+        compareWithSyncListHelper(() -> new HandOverHandList(),
+                "HandOverHandList", addSeq, containsSeq, removeSeq, "Small");
+    }
+
+    public void testOptimisticRandomLarge() throws InterruptedException {
+        final SequenceGenerator addSeq = new RandomSequenceGenerator(0,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator containsSeq = new RandomSequenceGenerator(1,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RandomSequenceGenerator(2, getNCores() * randNumsLength, randNumRange));
+
+        compareWithSyncListHelper(() -> new OptimisticList(),
+                "OptimisticList", addSeq, containsSeq, removeSeq, "Large");
+    }
+
+    public void testLazyRandomLarge() throws InterruptedException {
+        final SequenceGenerator addSeq = new RandomSequenceGenerator(0,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator containsSeq = new RandomSequenceGenerator(1,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RandomSequenceGenerator(2, getNCores() * randNumsLength, randNumRange));
+
+        compareWithSyncListHelper(() -> new LazyList(), "LazyList", addSeq,
+                containsSeq, removeSeq, "Large");
+    }
+
+    public void testLockFreeRandomLarge() throws InterruptedException {
+        final SequenceGenerator addSeq = new RandomSequenceGenerator(0,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator containsSeq = new RandomSequenceGenerator(1,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RandomSequenceGenerator(2, getNCores() * randNumsLength, randNumRange));
+
+        compareWithSyncListHelper(() -> new LockFreeList(), "LockFreeList",
+                addSeq, containsSeq, removeSeq, "Large");
+    }
+
+    public void testLockFreeRepeatingSmall() throws InterruptedException {
+        final SequenceGenerator addSeq = new RepeatingSequenceGenerator(
+                getNCores() * 3 * randNumsLength, randNumsLength);
+        final SequenceGenerator containsSeq = new RepeatingSequenceGenerator(
+                getNCores() * 3 * randNumsLength, randNumsLength);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RepeatingSequenceGenerator(getNCores() * 3 * randNumsLength, randNumsLength));
+
+        compareWithSyncListHelper(() -> new LockFreeList(), "LockFreeList",
+                addSeq, containsSeq, removeSeq, "Small");
+    }
+
+    public void testSkipListRandomLarge() throws InterruptedException {
+        final SequenceGenerator addSeq = new RandomSequenceGenerator(0,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator containsSeq = new RandomSequenceGenerator(1,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RandomSequenceGenerator(2, getNCores() * randNumsLength, randNumRange));
+
+        compareWithSyncListHelper(() -> new SkipListSet(), "SkipListSet",
+                addSeq, containsSeq, removeSeq, "Large");
+    }
+
+    public void testStampedLockRandomLarge() throws InterruptedException {
+        final SequenceGenerator addSeq = new RandomSequenceGenerator(0,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator containsSeq = new RandomSequenceGenerator(1,
+                getNCores() * randNumsLength, randNumRange);
+        final SequenceGenerator removeSeq = new ReversedSequenceGenerator(
+                new RandomSequenceGenerator(2, getNCores() * randNumsLength, randNumRange));
+
+        compareWithSyncListHelper(() -> new StampedCoarseList(),
+                "StampedCoarseList", addSeq, containsSeq, removeSeq, "Large");
+    }
+
+    /*
+     * Read-mostly mixes run concurrently on one list: each thread performs
+     * contains for the given percentage of its operations and otherwise
+     * alternates add and remove. Prints StampedCoarseList throughput against
+     * RWCoarseList for each mix.
+     */
+    public void testStampedLockReadMostlyMixes() throws InterruptedException {
+        final int opsPerThread = randNumsLength;
+        for (int readPercent : new int[] {90, 99, 100}) {
+            double rwRate = 0.0;
+            double stampedRate = 0.0;
+            for (int r = 0; r < 5; r++) {
+                rwRate = Math.max(rwRate, mixedKernel(new RWCoarseList(),
+                            readPercent, opsPerThread));
+                stampedRate = Math.max(stampedRate, mixedKernel(
+                            new StampedCoarseList(), readPercent,
+                            opsPerThread));
+            }
+            System.out.println("=========================================================");
+            System.out.println("StampedCoarseList vs. RWCoarseList (" + readPercent
+                    + "% contains)");
+            System.out.println("=========================================================");
+            System.out.println("# threads = " + getNCores());
+            System.out.println((stampedRate / rwRate) + "x improvement in mixed throughput (" + rwRate + " -> " + stampedRate + ")");
+        }
+    }
+
+    private double mixedKernel(final ListSet list,
+            final int readPercent, final int opsPerThread)
+            throws InterruptedException {
+        final int numThreads = getNCores();
+        final Random fill = new Random(0);
+        for (int i = 0; i < randNumsLength; i++) {
+            list.add(fill.nextInt(randNumRange));
+        }
+
+        final Runnable[] runners = new Runnable[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final Random rand = new Random(t + 1);
+            final Integer[] nums = new Integer[opsPerThread];
+            final boolean[] reads = new boolean[opsPerThread];
+            for (int i = 0; i < opsPerThread; i++) {
+                nums[i] = rand.nextInt(randNumRange);
+                reads[i] = rand.nextInt(100) < readPercent;
+            }
+            runners[t] = () -> {
+                boolean addNext = true;
+                for (int i = 0; i < nums.length; i++) {
+                    if (reads[i]) {
+                        list.contains(nums[i]);
+                    } else if (addNext) {
+                        list.add(nums[i]);
+                        addNext = false;
+                    } else {
+                        list.remove(nums[i]);
+                        addNext = true;
+                    }
+                }
+            };
+        }
+        final long elapsed = launchAndJoinAll(runners);
+
+        Entry prev = list.getHead();
+        Entry curr = prev.next;
+        while (curr != null) {
+            assertTrue("List was not sorted",
+                    curr.object.intValue() > prev.object.intValue());
+            prev = curr;
+            curr = curr.next;
+        }
+        return (double) (numThreads * opsPerThread) / (double) elapsed;
+    }
+
+    /*
+     * Check that a list gives the same results as SyncList on the phased
+     * workloads and print its throughput relative to SyncList. Throughput is
+     * not asserted: it depends on how many cores the tests run on.
+     */
+    private void compareWithSyncListHelper(final ListFactory factory,
+            final String lbl, final SequenceGenerator addSeq,
+            final SequenceGenerator containsSeq,
+            final SequenceGenerator removeSeq, final String datasetName)
+            throws InterruptedException {
+        final TestResultsPair results = runKernel(factory, lbl,
+                () -> new SyncList(), "SyncList", addSeq, containsSeq,
+                removeSeq);
+        final TestResults testResults = results.A;
+        final TestResults syncResults = results.B;
+        printStats(syncResults, testResults, addSeq, datasetName);
+
+        assertEquals(syncResults.listLengthAfterAdds,
+                testResults.listLengthAfterAdds);
+        assertEquals(syncResults.totalContainsSuccesses,
+                testResults.totalContainsSuccesses);
+        assertEquals(syncResults.totalContainsFailures,
+                testResults.totalContainsFailures);
+        assertEquals(syncResults.listLengthAfterRemoves,
+                testResults.listLengthAfterRemoves);
+        assertEquals(syncResults.totalRemovesSuccesses,
+                testResults.totalRemovesSuccesses);
+        assertEquals(syncResults.totalRemovesFailures,
+                testResults.totalRemovesFailures);
+    }
+
     private void testCoarseGrainedLockingHelper(final SequenceGenerator addSeq,
             final SequenceGenerator containsSeq,
             final SequenceGenerator removeSeq, final double expectedAdd,
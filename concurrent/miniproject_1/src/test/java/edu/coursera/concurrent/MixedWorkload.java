@@ -0,0 +1,94 @@
+package edu.coursera.concurrent;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Mixed concurrent add/remove/contains workload shared by the set tests.
+ * Each thread owns the keys equal to its index modulo the thread count, so
+ * every thread knows exactly which of its keys must be in the set, while
+ * the entries it modifies sit between entries other threads are modifying.
+ */
+final class MixedWorkload {
+    final static int OPS_PER_THREAD = 20_000;
+    final static int KEYS_PER_THREAD = 256;
+
+    /*
+     * The operations of the set under test.
+     */
+    interface SetOps {
+        boolean add(int key);
+
+        boolean remove(int key);
+
+        boolean contains(int key);
+    }
+
+    private MixedWorkload() {
+    }
+
+    private static int getNThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    /*
+     * Run the workload, checking every result against the thread's own
+     * TreeSet, and return the values that must be in the set afterwards.
+     */
+    static TreeSet<Integer> run(final SetOps set, final String lbl)
+            throws InterruptedException {
+        final int nThreads = getNThreads();
+        final CyclicBarrier barrier = new CyclicBarrier(nThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<TreeSet<Integer>> expected = new ArrayList<>(nThreads);
+        final Thread[] threads = new Thread[nThreads];
+
+        for (int t = 0; t < nThreads; t++) {
+            final int tid = t;
+            expected.add(new TreeSet<>());
+            threads[t] = new Thread(() -> {
+                final Random rand = new Random(tid);
+                final TreeSet<Integer> mine = expected.get(tid);
+                try {
+                    barrier.await();
+                    for (int op = 0; op < OPS_PER_THREAD; op++) {
+                        final int key = rand.nextInt(KEYS_PER_THREAD)
+                            * nThreads + tid;
+                        final int kind = rand.nextInt(4);
+                        if (kind == 0) {
+                            assertEquals(lbl + " add " + key, mine.add(key),
+                                    set.add(key));
+                        } else if (kind == 1) {
+                            assertEquals(lbl + " remove " + key,
+                                    mine.remove(key), set.remove(key));
+                        } else {
+                            assertEquals(lbl + " contains " + key,
+                                    mine.contains(key), set.contains(key));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+
+        final TreeSet<Integer> all = new TreeSet<>();
+        for (TreeSet<Integer> mine : expected) {
+            all.addAll(mine);
+        }
+        return all;
+    }
+}
@@ -0,0 +1,93 @@
+package edu.coursera.concurrent;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+public class SkipListSetTest extends TestCase {
+    final static int N = 200_000;
+    final static int RANGE = 400_000;
+
+    private static void checkContents(final ListSet list,
+            final TreeSet<Integer> expected) {
+        Entry curr = list.getHead().next;
+        for (Integer key : expected) {
+            assertEquals(key, curr.object);
+            curr = curr.next;
+        }
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), curr.object);
+        assertNull(curr.next);
+    }
+
+    /*
+     * Sequential random operations on a set of 100K+ values, checked against
+     * a TreeSet, including the bottom-level view from getHead().
+     */
+    public void testMatchesTreeSet() {
+        final Random rand = new Random(17);
+        final SkipListSet list = new SkipListSet();
+        final TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int i = 0; i < N; i++) {
+            final Integer key = rand.nextInt(RANGE);
+            assertEquals(expected.add(key), list.add(key));
+        }
+        checkContents(list, expected);
+        assertTrue("Expected index levels, found " + list.getLevels(),
+                list.getLevels() > 10);
+
+        for (int i = 0; i < N; i++) {
+            final Integer key = rand.nextInt(RANGE);
+            if (rand.nextBoolean()) {
+                assertEquals(expected.remove(key), list.remove(key));
+            } else {
+                assertEquals(expected.contains(key), list.contains(key));
+            }
+        }
+        checkContents(list, expected);
+    }
+
+    /*
+     * contains on a set of 100K values, against the O(n) LockFreeList.
+     */
+    public void testContainsScaling() {
+        final int size = 100_000;
+        final int lookups = 2_000;
+        final SkipListSet skipList = new SkipListSet();
+        final LockFreeList list = new LockFreeList();
+        for (int i = 0; i < size; i++) {
+            skipList.add(2 * i);
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            list.add(2 * i);
+        }
+
+        for (int r = 0; r < 3; r++) {
+            final Random rand = new Random(r);
+            long start = System.nanoTime();
+            int skipHits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (skipList.contains(rand.nextInt(2 * size))) {
+                    skipHits++;
+                }
+            }
+            final long skipTime = System.nanoTime() - start;
+
+            rand.setSeed(r);
+            start = System.nanoTime();
+            int listHits = 0;
+            for (int i = 0; i < lookups; i++) {
+                if (list.contains(rand.nextInt(2 * size))) {
+                    listHits++;
+                }
+            }
+            final long listTime = System.nanoTime() - start;
+
+            assertEquals(listHits, skipHits);
+            System.out.println(lookups + " contains on " + size
+                    + " values: SkipListSet " + (skipTime / 1e6)
+                    + " ms, LockFreeList " + (listTime / 1e6) + " ms");
+        }
+    }
+}
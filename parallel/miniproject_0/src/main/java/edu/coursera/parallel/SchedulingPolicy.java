@@ -0,0 +1,50 @@
+package edu.coursera.parallel;
+
+import java.util.Locale;
+
+/**
+ * Whether {@link TaskRuntime#async} queues a task for its body or runs the
+ * body straight away on the calling thread. Only asyncs called from a
+ * worker of the work-stealing pool are ever run inline; asyncs called from
+ * other threads, or on virtual threads, are always queued.
+ */
+public enum SchedulingPolicy {
+    /**
+     * Queue every async on the calling worker's deque and carry on with the
+     * caller's code. Other workers steal the queued children. This is what
+     * PCDP does.
+     */
+    HELP_FIRST,
+
+    /**
+     * Run the async's body immediately, depth-first, as a plain call. The JVM
+     * cannot capture the caller's continuation for another worker to steal,
+     * so instead an async is still queued while some worker of the pool is
+     * idle, to give thieves something to take.
+     *
+     * An inlined body runs to completion before async returns, so it must
+     * not wait for anything the caller only does after async: a body that
+     * awaits a latch, future or phaser the caller releases later deadlocks.
+     */
+    WORK_FIRST,
+
+    /**
+     * Queue asyncs while the calling worker has few queued tasks of its own,
+     * and run them inline once it has more than the inlining threshold
+     * surplus tasks, meaning the other workers are already saturated.
+     * As with {@link #WORK_FIRST}, an inlined body that waits for the
+     * caller's continuation deadlocks.
+     */
+    ADAPTIVE;
+
+    /**
+     * Parse a policy name as given in the taskruntime.policy system
+     * property: the constant name in any case, with '-' for '_'.
+     *
+     * @param name The configured name
+     * @return The policy
+     */
+    public static SchedulingPolicy fromName(final String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,666 @@
+package edu.coursera.parallel;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import edu.rice.pcdp.ProcedureInt1D;
+import edu.rice.pcdp.ProcedureInt2D;
+
+/**
+ * A drop-in replacement for the finish/async/forall/isolated entry points of
+ * edu.rice.pcdp.PCDP. Switching a class over only takes changing its static
+ * imports from PCDP to TaskRuntime; lambdas at the call sites are unchanged.
+ *
+ * Asyncs run on the {@link TaskScheduler} chosen by the
+ * taskruntime.scheduler system property ("work-stealing", the default, or
+ * "virtual-threads"), or later by {@link #configure}. Asking for a scheduler
+ * this JVM does not support fails, whichever way it is asked for. The
+ * work-stealing pool has taskruntime.numWorkers workers, by default one per
+ * processor.
+ *
+ * Whether an async called on a pool worker gets a task of its own or runs
+ * inline is set by the {@link SchedulingPolicy} in the taskruntime.policy
+ * property ("help-first" by default, "work-first" or "adaptive"), or later by
+ * {@link #setPolicy}. The adaptive policy inlines once the worker has more
+ * than taskruntime.inlineThreshold surplus queued tasks, 3 by default.
+ *
+ * As in PCDP, finish waits for every async started inside it, directly or
+ * from nested asyncs, and rethrows their failures. async must be called
+ * inside a finish.
+ */
+public final class TaskRuntime {
+
+    /**
+     * System property selecting the scheduler.
+     */
+    public static final String SCHEDULER_PROPERTY = "taskruntime.scheduler";
+
+    /**
+     * System property giving the number of work-stealing workers.
+     */
+    public static final String WORKERS_PROPERTY = "taskruntime.numWorkers";
+
+    /**
+     * System property selecting the scheduling policy.
+     */
+    public static final String POLICY_PROPERTY = "taskruntime.policy";
+
+    /**
+     * System property giving the inlining threshold of the adaptive policy.
+     */
+    public static final String INLINE_THRESHOLD_PROPERTY =
+        "taskruntime.inlineThreshold";
+
+    /**
+     * Number of locks that objects passed to isolated are hashed onto.
+     */
+    private static final int ISOLATION_STRIPES = 64;
+
+    /**
+     * Locks protecting isolated sections. ReentrantLock rather than
+     * synchronized, so that a virtual thread blocked on one does not pin its
+     * carrier.
+     */
+    private static final ReentrantLock[] STRIPES =
+        new ReentrantLock[ISOLATION_STRIPES];
+
+    /**
+     * Innermost finish enclosing the code running on each thread.
+     */
+    private static final ThreadLocal<FinishScope> CURRENT =
+        new ThreadLocal<>();
+
+    /**
+     * Scheduler asyncs are currently submitted to.
+     */
+    private static volatile TaskScheduler scheduler;
+
+    /**
+     * Executor of the current scheduler.
+     */
+    private static volatile Executor executor;
+
+    /**
+     * Policy deciding which asyncs run inline.
+     */
+    private static volatile SchedulingPolicy policy =
+        SchedulingPolicy.fromName(System.getProperty(POLICY_PROPERTY,
+                    SchedulingPolicy.HELP_FIRST.name()));
+
+    /**
+     * Surplus queued tasks above which the adaptive policy runs asyncs
+     * inline.
+     */
+    private static volatile int inlineThreshold =
+        Integer.getInteger(INLINE_THRESHOLD_PROPERTY, 3);
+
+    static {
+        for (int s = 0; s < ISOLATION_STRIPES; s++) {
+            STRIPES[s] = new ReentrantLock();
+        }
+
+        configure(TaskScheduler.fromName(System.getProperty(
+                    SCHEDULER_PROPERTY, TaskScheduler.WORK_STEALING.name())));
+    }
+
+    /**
+     * Default constructor.
+     */
+    private TaskRuntime() {
+    }
+
+    /**
+     * Switch to another scheduler. Must not be called while a finish is
+     * running; asyncs already submitted to the previous scheduler complete
+     * there.
+     *
+     * @param newScheduler The scheduler to use from now on
+     */
+    public static synchronized void configure(
+            final TaskScheduler newScheduler) {
+        if (!newScheduler.isAvailable()) {
+            throw new UnsupportedOperationException(newScheduler
+                    + " is not available on Java "
+                    + System.getProperty("java.version"));
+        }
+        final Executor previous = executor;
+        if (newScheduler == TaskScheduler.WORK_STEALING) {
+            executor = new ForkJoinPool(Integer.getInteger(WORKERS_PROPERTY,
+                        Runtime.getRuntime().availableProcessors()));
+        } else {
+            try {
+                executor = (Executor) TaskScheduler.virtualThreadFactory()
+                    .invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        scheduler = newScheduler;
+        if (previous instanceof ExecutorService) {
+            ((ExecutorService) previous).shutdown();
+        }
+    }
+
+    /**
+     * Getter for the scheduler.
+     *
+     * @return The scheduler asyncs are submitted to
+     */
+    public static TaskScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Change the scheduling policy. Takes effect for asyncs called after it
+     * returns.
+     *
+     * @param newPolicy The policy to use from now on
+     */
+    public static void setPolicy(final SchedulingPolicy newPolicy) {
+        policy = newPolicy;
+    }
+
+    /**
+     * Change the scheduling policy and the inlining threshold used by the
+     * adaptive policy.
+     *
+     * @param newPolicy The policy to use from now on
+     * @param newInlineThreshold Surplus queued tasks above which the
+     * adaptive policy runs asyncs inline, at least zero
+     */
+    public static void setPolicy(final SchedulingPolicy newPolicy,
+            final int newInlineThreshold) {
+        if (newInlineThreshold < 0) {
+            throw new IllegalArgumentException("Expected inlineThreshold >= 0,"
+                    + " got " + newInlineThreshold);
+        }
+        inlineThreshold = newInlineThreshold;
+        policy = newPolicy;
+    }
+
+    /**
+     * Getter for the scheduling policy.
+     *
+     * @return The policy deciding which asyncs run inline
+     */
+    public static SchedulingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Getter for the inlining threshold of the adaptive policy.
+     *
+     * @return Surplus queued tasks above which asyncs run inline
+     */
+    public static int getInlineThreshold() {
+        return inlineThreshold;
+    }
+
+    /**
+     * The amount of parallelism available, as PCDP.numThreads.
+     *
+     * @return The number of work-stealing workers, or the number of
+     * processors when running on virtual threads
+     */
+    public static int numThreads() {
+        final Executor current = executor;
+        if (current instanceof ForkJoinPool) {
+            return ((ForkJoinPool) current).getParallelism();
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Run body, then wait for every async it started, transitively.
+     *
+     * @param body The code to run
+     */
+    public static void finish(final Runnable body) {
+        final FinishScope parent = CURRENT.get();
+        final FinishScope scope = new FinishScope(Thread.currentThread());
+        CURRENT.set(scope);
+        try {
+            body.run();
+        } catch (Throwable t) {
+            scope.fail(t);
+        } finally {
+            CURRENT.set(parent);
+        }
+        scope.await();
+        scope.rethrow();
+    }
+
+    /**
+     * Run body asynchronously, as a child of the innermost enclosing finish.
+     *
+     * @param body The code to run
+     */
+    public static void async(final Runnable body) {
+        final FinishScope scope = CURRENT.get();
+        if (scope == null) {
+            throw new IllegalStateException("async must be called inside "
+                    + "finish");
+        }
+
+        final Executor current = executor;
+        if (current instanceof ForkJoinPool
+                && isWorkerOf((ForkJoinPool) current)) {
+            if (runInline((ForkJoinPool) current)) {
+                try {
+                    body.run();
+                } catch (Throwable t) {
+                    scope.fail(t);
+                }
+                return;
+            }
+            scope.pending.incrementAndGet();
+            new AsyncTask(scope, body).fork();
+        } else {
+            scope.pending.incrementAndGet();
+            current.execute(new AsyncTask(scope, body));
+        }
+    }
+
+    /**
+     * Whether the current policy runs an async called on a worker of pool
+     * inline.
+     *
+     * @param pool The work-stealing pool the caller belongs to
+     * @return True to run it inline, false to queue it
+     */
+    private static boolean runInline(final ForkJoinPool pool) {
+        switch (policy) {
+            case WORK_FIRST:
+                return pool.getActiveThreadCount() >= pool.getParallelism();
+            case ADAPTIVE:
+                return ForkJoinTask.getSurplusQueuedTaskCount()
+                    > inlineThreshold;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Run body for every index from start to endInclusive in parallel, one
+     * async per chunk, with numThreads() chunks, and wait for them all.
+     *
+     * @param start First index
+     * @param endInclusive Last index
+     * @param body The code to run for each index
+     */
+    public static void forall(final int start, final int endInclusive,
+            final ProcedureInt1D body) {
+        final long count = (long) endInclusive - start + 1;
+        final int chunkSize = (int) Math.max(1L,
+                (count + numThreads() - 1) / numThreads());
+        forallChunked(start, endInclusive, chunkSize, body);
+    }
+
+    /**
+     * Run body for every index from start to endInclusive in parallel, one
+     * async per chunk of chunkSize consecutive indices, and wait for them
+     * all.
+     *
+     * @param start First index
+     * @param endInclusive Last index
+     * @param chunkSize Number of indices per async, at least one
+     * @param body The code to run for each index
+     */
+    public static void forallChunked(final int start, final int endInclusive,
+            final int chunkSize, final ProcedureInt1D body) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Expected chunkSize > 0, got "
+                    + chunkSize);
+        }
+        finish(() -> {
+            for (long lo = start; lo <= endInclusive; lo += chunkSize) {
+                final int first = (int) lo;
+                final int last = (int) Math.min(endInclusive,
+                        lo + chunkSize - 1);
+                async(() -> {
+                    for (int i = first; i <= last; i++) {
+                        body.apply(i);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Run body for every pair of indices in [start0, endInclusive0] x
+     * [start1, endInclusive1] in parallel, and wait for them all. As in
+     * {@link #forall}, the outer indices are split into numThreads() bands of
+     * consecutive indices, one async per band, and each band covers every
+     * inner index.
+     *
+     * @param start0 First outer index
+     * @param endInclusive0 Last outer index
+     * @param start1 First inner index
+     * @param endInclusive1 Last inner index
+     * @param body The code to run for each pair
+     */
+    public static void forall2d(final int start0, final int endInclusive0,
+            final int start1, final int endInclusive1,
+            final ProcedureInt2D body) {
+        forall(start0, endInclusive0, (i) -> {
+            for (int j = start1; j <= endInclusive1; j++) {
+                body.apply(i, j);
+            }
+        });
+    }
+
+    /**
+     * Run body for every pair of indices in [start0, endInclusive0] x
+     * [start1, endInclusive1] in parallel, one async per chunkSize x chunkSize
+     * tile, and wait for them all.
+     *
+     * @param start0 First outer index
+     * @param endInclusive0 Last outer index
+     * @param start1 First inner index
+     * @param endInclusive1 Last inner index
+     * @param chunkSize Edge length of the tiles, at least one
+     * @param body The code to run for each pair
+     */
+    public static void forall2dChunked(final int start0,
+            final int endInclusive0, final int start1, final int endInclusive1,
+            final int chunkSize, final ProcedureInt2D body) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Expected chunkSize > 0, got "
+                    + chunkSize);
+        }
+        finish(() -> {
+            for (long lo0 = start0; lo0 <= endInclusive0; lo0 += chunkSize) {
+                final int first0 = (int) lo0;
+                final int last0 = (int) Math.min(endInclusive0,
+                        lo0 + chunkSize - 1);
+                for (long lo1 = start1; lo1 <= endInclusive1;
+                        lo1 += chunkSize) {
+                    final int first1 = (int) lo1;
+                    final int last1 = (int) Math.min(endInclusive1,
+                            lo1 + chunkSize - 1);
+                    async(() -> {
+                        for (int i = first0; i <= last0; i++) {
+                            for (int j = first1; j <= last1; j++) {
+                                body.apply(i, j);
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Run body in mutual exclusion with every other isolated section.
+     *
+     * @param body The code to run
+     */
+    public static void isolated(final Runnable body) {
+        final int[] all = new int[ISOLATION_STRIPES];
+        for (int s = 0; s < ISOLATION_STRIPES; s++) {
+            all[s] = s;
+        }
+        runLocked(all, body);
+    }
+
+    /**
+     * Run body in mutual exclusion with other isolated sections on obj.
+     *
+     * @param obj The object to isolate on
+     * @param body The code to run
+     */
+    public static void isolated(final Object obj, final Runnable body) {
+        runLocked(new int[] {stripe(obj)}, body);
+    }
+
+    /**
+     * Run body in mutual exclusion with other isolated sections on obj1 or
+     * obj2.
+     *
+     * @param obj1 An object to isolate on
+     * @param obj2 Another object to isolate on
+     * @param body The code to run
+     */
+    public static void isolated(final Object obj1, final Object obj2,
+            final Runnable body) {
+        runLocked(new int[] {stripe(obj1), stripe(obj2)}, body);
+    }
+
+    /**
+     * Run body holding the given stripes, acquired in increasing order so
+     * that overlapping isolated sections cannot deadlock.
+     *
+     * @param stripes Indices of the locks to hold
+     * @param body The code to run
+     */
+    private static void runLocked(final int[] stripes, final Runnable body) {
+        Arrays.sort(stripes);
+        int held = 0;
+        try {
+            for (int k = 0; k < stripes.length; k++) {
+                if (k > 0 && stripes[k] == stripes[k - 1]) {
+                    continue;
+                }
+                STRIPES[stripes[k]].lock();
+                held = k + 1;
+            }
+            body.run();
+        } finally {
+            for (int k = held - 1; k >= 0; k--) {
+                if (k > 0 && stripes[k] == stripes[k - 1]) {
+                    continue;
+                }
+                STRIPES[stripes[k]].unlock();
+            }
+        }
+    }
+
+    /**
+     * The isolation lock an object maps to.
+     *
+     * @param obj The object
+     * @return Index of its lock in STRIPES
+     */
+    private static int stripe(final Object obj) {
+        final int h = System.identityHashCode(obj);
+        return (h ^ (h >>> 16)) & (ISOLATION_STRIPES - 1);
+    }
+
+    /**
+     * Whether the calling thread is a worker of pool.
+     *
+     * @param pool A work-stealing pool
+     * @return True if it is
+     */
+    private static boolean isWorkerOf(final ForkJoinPool pool) {
+        final Thread t = Thread.currentThread();
+        return t instanceof ForkJoinWorkerThread
+            && ((ForkJoinWorkerThread) t).getPool() == pool;
+    }
+
+    /**
+     * The asyncs of one finish that have not completed yet, and the failures
+     * of those that have.
+     */
+    private static final class FinishScope
+            implements ForkJoinPool.ManagedBlocker {
+
+        /**
+         * Number of asyncs started but not completed.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * Failures of the body and its asyncs.
+         */
+        private final Queue<Throwable> failures =
+            new ConcurrentLinkedQueue<>();
+
+        /**
+         * Thread running the finish, unparked when pending reaches zero.
+         */
+        private final Thread owner;
+
+        /**
+         * Constructor.
+         *
+         * @param setOwner Thread running the finish
+         */
+        FinishScope(final Thread setOwner) {
+            this.owner = setOwner;
+        }
+
+        /**
+         * Record a failure.
+         *
+         * @param t What was thrown
+         */
+        void fail(final Throwable t) {
+            failures.add(t);
+        }
+
+        /**
+         * Mark one async as completed.
+         */
+        void done() {
+            if (pending.decrementAndGet() == 0) {
+                LockSupport.unpark(owner);
+            }
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return pending.get() == 0;
+        }
+
+        @Override
+        public boolean block() {
+            while (pending.get() != 0) {
+                LockSupport.park(this);
+            }
+            return true;
+        }
+
+        /**
+         * Wait until every async of this finish has completed. Workers of the
+         * work-stealing pool run other queued asyncs meanwhile, and only block,
+         * letting the pool compensate, when there are none.
+         */
+        void await() {
+            final Executor current = executor;
+            if (current instanceof ForkJoinPool
+                    && isWorkerOf((ForkJoinPool) current)) {
+                AsyncTask.helpUntil(this);
+            }
+            try {
+                ForkJoinPool.managedBlock(this);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted in finish", e);
+            }
+        }
+
+        /**
+         * Rethrow the recorded failures, if any: a single one as is and
+         * several as suppressed exceptions of one RuntimeException.
+         */
+        void rethrow() {
+            if (failures.isEmpty()) {
+                return;
+            }
+            if (failures.size() == 1) {
+                final Throwable t = failures.peek();
+                if (t instanceof RuntimeException) {
+                    throw (RuntimeException) t;
+                } else if (t instanceof Error) {
+                    throw (Error) t;
+                }
+                throw new RuntimeException(t);
+            }
+            final RuntimeException e = new RuntimeException(failures.size()
+                    + " tasks failed in finish");
+            for (Throwable t : failures) {
+                e.addSuppressed(t);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * One async, runnable on either scheduler.
+     */
+    private static final class AsyncTask extends RecursiveAction
+            implements Runnable {
+
+        /**
+         * Serialization version, as for any ForkJoinTask.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Finish this async belongs to.
+         */
+        private final FinishScope scope;
+
+        /**
+         * The async's code.
+         */
+        private final Runnable body;
+
+        /**
+         * Constructor.
+         *
+         * @param setScope Finish this async belongs to
+         * @param setBody The async's code
+         */
+        AsyncTask(final FinishScope setScope, final Runnable setBody) {
+            this.scope = setScope;
+            this.body = setBody;
+        }
+
+        @Override
+        protected void compute() {
+            final FinishScope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                body.run();
+            } catch (Throwable t) {
+                scope.fail(t);
+            } finally {
+                CURRENT.set(previous);
+                scope.done();
+            }
+        }
+
+        @Override
+        public void run() {
+            invoke();
+        }
+
+        /**
+         * Run queued or stolen tasks on the calling worker until scope has no
+         * pending asyncs or no task is available.
+         *
+         * @param scope The finish being waited for
+         */
+        static void helpUntil(final FinishScope scope) {
+            while (!scope.isReleasable()) {
+                final ForkJoinTask<?> task = pollTask();
+                if (task == null) {
+                    return;
+                }
+                task.quietlyInvoke();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package edu.coursera.parallel;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Where {@link TaskRuntime} runs asyncs.
+ */
+public enum TaskScheduler {
+    /**
+     * A ForkJoinPool with one worker per thread of parallelism. Each worker
+     * keeps its own deque of asyncs and idle workers steal from the others.
+     * A worker waiting in finish runs queued asyncs meanwhile.
+     */
+    WORK_STEALING,
+
+    /**
+     * One virtual thread per async, so asyncs that block (I/O, sleeps,
+     * locks) release their carrier thread. Needs Java 21 or later.
+     */
+    VIRTUAL_THREADS;
+
+    /**
+     * Whether this scheduler can be used on the running JVM.
+     *
+     * @return False for VIRTUAL_THREADS if the JVM cannot create virtual
+     *         threads, as before Java 21, true otherwise
+     */
+    public boolean isAvailable() {
+        return this == WORK_STEALING || virtualThreadFactory() != null;
+    }
+
+    /**
+     * Parse a scheduler name as given in the taskruntime.scheduler system
+     * property: the constant name in any case, with '-' for '_', or the
+     * short forms "virtual" and "forkjoin".
+     *
+     * @param name The configured name
+     * @return The scheduler
+     */
+    public static TaskScheduler fromName(final String name) {
+        final String normalized = name.trim().toUpperCase(Locale.ROOT)
+            .replace('-', '_');
+        if (normalized.equals("VIRTUAL")) {
+            return VIRTUAL_THREADS;
+        } else if (normalized.equals("FORKJOIN")) {
+            return WORK_STEALING;
+        }
+        return valueOf(normalized);
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor, looked up reflectively so
+     * that this class still compiles and runs on Java 8.
+     *
+     * @return The factory method, or null if the JVM has no usable virtual
+     *         threads
+     */
+    static Method virtualThreadFactory() {
+        return VirtualThreadProbe.FACTORY;
+    }
+
+    /**
+     * Looks up the virtual thread factory once, on first use. On Java 19 and
+     * 20 the method exists but throws unless preview features are enabled,
+     * so it is only kept if calling it once succeeds.
+     */
+    private static final class VirtualThreadProbe {
+        /**
+         * The factory method, or null if it is missing or unusable.
+         */
+        static final Method FACTORY = probe();
+
+        /**
+         * Default constructor.
+         */
+        private VirtualThreadProbe() {
+        }
+
+        /**
+         * Look up the factory and create and shut down one executor with it.
+         *
+         * @return The factory method, or null if either step failed
+         */
+        private static Method probe() {
+            try {
+                final Method factory = Executors.class.getMethod(
+                        "newVirtualThreadPerTaskExecutor");
+                ((ExecutorService) factory.invoke(null)).shutdown();
+                return factory;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
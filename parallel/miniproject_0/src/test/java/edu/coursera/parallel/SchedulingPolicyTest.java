@@ -0,0 +1,251 @@
+package edu.coursera.parallel;
+
+import static edu.coursera.parallel.TaskRuntime.async;
+import static edu.coursera.parallel.TaskRuntime.finish;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class SchedulingPolicyTest extends TestCase {
+    final static int REPEATS = 5;
+
+    /*
+     * Sub-arrays at most this long are sorted sequentially.
+     */
+    final static int SORT_CUTOFF = 64;
+
+    @Override
+    protected void tearDown() {
+        TaskRuntime.setPolicy(SchedulingPolicy.HELP_FIRST, 3);
+    }
+
+    private static int fib(final int n) {
+        if (n < 2) {
+            return n;
+        }
+        final int[] left = new int[1];
+        final int[] right = new int[1];
+        finish(() -> {
+            async(() -> left[0] = fib(n - 1));
+            right[0] = fib(n - 2);
+        });
+        return left[0] + right[0];
+    }
+
+    private static int seqFib(final int n) {
+        return n < 2 ? n : seqFib(n - 1) + seqFib(n - 2);
+    }
+
+    private static void quicksort(final int[] a, final int lo, final int hi) {
+        if (hi - lo < SORT_CUTOFF) {
+            Arrays.sort(a, lo, hi + 1);
+            return;
+        }
+        final int pivot = a[lo + (hi - lo) / 2];
+        int i = lo;
+        int j = hi;
+        while (i <= j) {
+            while (a[i] < pivot) {
+                i++;
+            }
+            while (a[j] > pivot) {
+                j--;
+            }
+            if (i <= j) {
+                final int tmp = a[i];
+                a[i] = a[j];
+                a[j] = tmp;
+                i++;
+                j--;
+            }
+        }
+        final int leftEnd = j;
+        final int rightStart = i;
+        finish(() -> {
+            async(() -> quicksort(a, lo, leftEnd));
+            quicksort(a, rightStart, hi);
+        });
+    }
+
+    private static int[] createArray(final int n) {
+        final Random rand = new Random(314);
+        final int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = rand.nextInt();
+        }
+        return a;
+    }
+
+    /*
+     * The policies to compare, with the adaptive one at a few thresholds.
+     */
+    private static void forEachPolicy(final PolicyRun run) {
+        for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+            if (policy == SchedulingPolicy.ADAPTIVE) {
+                for (int threshold : new int[] {0, 3, 16}) {
+                    TaskRuntime.setPolicy(policy, threshold);
+                    run.run(policy + "(" + threshold + ")");
+                }
+            } else {
+                TaskRuntime.setPolicy(policy);
+                run.run(policy.toString());
+            }
+        }
+    }
+
+    private interface PolicyRun {
+        void run(String label);
+    }
+
+    public void testPolicyNames() {
+        assertEquals(SchedulingPolicy.WORK_FIRST,
+                SchedulingPolicy.fromName("work-first"));
+        assertEquals(SchedulingPolicy.HELP_FIRST,
+                SchedulingPolicy.fromName("Help_First"));
+        assertEquals(SchedulingPolicy.ADAPTIVE,
+                SchedulingPolicy.fromName("adaptive"));
+        try {
+            TaskRuntime.setPolicy(SchedulingPolicy.ADAPTIVE, -1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /*
+     * Inlined asyncs still count towards their finish and report failures
+     * through it.
+     */
+    public void testInlinedAsyncSemantics() {
+        forEachPolicy((label) -> {
+            final AtomicInteger count = new AtomicInteger();
+            finish(() -> {
+                async(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        async(() -> count.incrementAndGet());
+                    }
+                });
+            });
+            assertEquals(label, 100, count.get());
+
+            try {
+                finish(() -> {
+                    async(() -> {
+                        async(() -> {
+                            throw new IllegalArgumentException(label);
+                        });
+                    });
+                });
+                fail(label + ": expected the async's exception");
+            } catch (IllegalArgumentException e) {
+                assertEquals(label, e.getMessage());
+            }
+        });
+    }
+
+    /*
+     * Whether an async called from a task of a one-worker pool ran its body
+     * on that worker before returning, after queuing queuedFirst others.
+     * With a single worker the pool is always saturated and the only queued
+     * tasks are the caller's own, so the policies decide deterministically.
+     */
+    private static boolean ranInline(final int queuedFirst) {
+        final Thread[] caller = new Thread[1];
+        final Thread[] ran = new Thread[1];
+        final boolean[] doneOnReturn = new boolean[1];
+        finish(() -> {
+            async(() -> {
+                caller[0] = Thread.currentThread();
+                for (int i = 0; i < queuedFirst; i++) {
+                    async(() -> { });
+                }
+                async(() -> ran[0] = Thread.currentThread());
+                doneOnReturn[0] = ran[0] != null;
+            });
+        });
+        assertNotNull(ran[0]);
+        if (doneOnReturn[0]) {
+            assertSame(caller[0], ran[0]);
+        }
+        return doneOnReturn[0];
+    }
+
+    public void testInliningOnSingleWorker() {
+        final String workers = System.getProperty(
+                TaskRuntime.WORKERS_PROPERTY);
+        System.setProperty(TaskRuntime.WORKERS_PROPERTY, "1");
+        try {
+            TaskRuntime.configure(TaskScheduler.WORK_STEALING);
+            assertEquals(1, TaskRuntime.numThreads());
+
+            TaskRuntime.setPolicy(SchedulingPolicy.HELP_FIRST);
+            assertFalse(ranInline(0));
+            assertFalse(ranInline(1));
+
+            TaskRuntime.setPolicy(SchedulingPolicy.WORK_FIRST);
+            assertTrue(ranInline(0));
+
+            // Inlines only with more than threshold of its own tasks queued
+            TaskRuntime.setPolicy(SchedulingPolicy.ADAPTIVE, 0);
+            assertFalse(ranInline(0));
+            assertTrue(ranInline(1));
+            TaskRuntime.setPolicy(SchedulingPolicy.ADAPTIVE, 2);
+            assertFalse(ranInline(2));
+            assertTrue(ranInline(3));
+        } finally {
+            if (workers == null) {
+                System.clearProperty(TaskRuntime.WORKERS_PROPERTY);
+            } else {
+                System.setProperty(TaskRuntime.WORKERS_PROPERTY, workers);
+            }
+            TaskRuntime.configure(TaskScheduler.WORK_STEALING);
+        }
+    }
+
+    /*
+     * One finish and one async per node of the call tree of fib(n).
+     */
+    public void testFibBenchmark() {
+        final int n = 24;
+        final int expected = seqFib(n);
+        System.out.println("fib(" + n + ") on " + TaskRuntime.numThreads()
+                + " workers");
+        forEachPolicy((label) -> {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < REPEATS; r++) {
+                final long start = System.nanoTime();
+                final int result = fib(n);
+                best = Math.min(best, System.nanoTime() - start);
+                assertEquals(label, expected, result);
+            }
+            System.out.println(String.format("  %-14s %8.3f ms", label,
+                        best / 1e6));
+        });
+    }
+
+    /*
+     * Quicksort with one async per partition above SORT_CUTOFF elements.
+     */
+    public void testQuicksortBenchmark() {
+        final int n = 1 << 20;
+        final int[] expected = createArray(n);
+        Arrays.sort(expected);
+        System.out.println("quicksort of " + n + " ints on "
+                + TaskRuntime.numThreads() + " workers");
+        forEachPolicy((label) -> {
+            long best = Long.MAX_VALUE;
+            for (int r = 0; r < REPEATS; r++) {
+                final int[] a = createArray(n);
+                final long start = System.nanoTime();
+                finish(() -> quicksort(a, 0, n - 1));
+                best = Math.min(best, System.nanoTime() - start);
+                assertTrue(label, Arrays.equals(expected, a));
+            }
+            System.out.println(String.format("  %-14s %8.3f ms", label,
+                        best / 1e6));
+        });
+    }
+}
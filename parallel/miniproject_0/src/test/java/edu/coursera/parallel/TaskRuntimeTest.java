@@ -0,0 +1,231 @@
+package edu.coursera.parallel;
+
+import static edu.coursera.parallel.TaskRuntime.async;
+import static edu.coursera.parallel.TaskRuntime.finish;
+import static edu.coursera.parallel.TaskRuntime.forall;
+import static edu.coursera.parallel.TaskRuntime.forall2d;
+import static edu.coursera.parallel.TaskRuntime.forall2dChunked;
+import static edu.coursera.parallel.TaskRuntime.forallChunked;
+import static edu.coursera.parallel.TaskRuntime.isolated;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import junit.framework.TestCase;
+
+public class TaskRuntimeTest extends TestCase {
+
+    /*
+     * Schedulers the tests run on: both where virtual threads exist.
+     */
+    private static TaskScheduler[] getSchedulers() {
+        if (TaskScheduler.VIRTUAL_THREADS.isAvailable()) {
+            return TaskScheduler.values();
+        }
+        return new TaskScheduler[] {TaskScheduler.WORK_STEALING};
+    }
+
+    @Override
+    protected void tearDown() {
+        TaskRuntime.configure(TaskScheduler.WORK_STEALING);
+    }
+
+    private static int fib(final int n) {
+        if (n < 2) {
+            return n;
+        }
+        final int[] left = new int[1];
+        final int[] right = new int[1];
+        finish(() -> {
+            async(() -> left[0] = fib(n - 1));
+            right[0] = fib(n - 2);
+        });
+        return left[0] + right[0];
+    }
+
+    /*
+     * The same call as Setup.setup, against the replacement runtime.
+     */
+    public void testSetupPattern() {
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            final int[] ret = new int[1];
+            finish(() -> {
+                async(() -> {
+                    ret[0] = 42;
+                });
+            });
+            assertEquals(scheduler.toString(), 42, ret[0]);
+        }
+    }
+
+    /*
+     * finish waits for asyncs started by asyncs, and nested finishes inside
+     * asyncs do not deadlock even with a single worker.
+     */
+    public void testNestedFinish() {
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            final AtomicInteger count = new AtomicInteger();
+            finish(() -> {
+                for (int i = 0; i < 10; i++) {
+                    async(() -> {
+                        for (int j = 0; j < 10; j++) {
+                            async(() -> count.incrementAndGet());
+                        }
+                    });
+                }
+            });
+            assertEquals(scheduler.toString(), 100, count.get());
+            assertEquals(scheduler.toString(), 610, fib(15));
+        }
+    }
+
+    public void testForall() {
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            final int n = 1000;
+            final AtomicIntegerArray visits = new AtomicIntegerArray(n);
+            forall(0, n - 1, (i) -> visits.incrementAndGet(i));
+            forallChunked(0, n - 1, 7, (i) -> visits.incrementAndGet(i));
+            for (int i = 0; i < n; i++) {
+                assertEquals(scheduler + " index " + i, 2, visits.get(i));
+            }
+        }
+        try {
+            forallChunked(0, 9, 0, (i) -> { });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testForall2d() {
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            final int rows = 37;
+            final int cols = 53;
+            final AtomicIntegerArray visits =
+                new AtomicIntegerArray(rows * cols);
+            forall2d(0, rows - 1, 0, cols - 1,
+                    (i, j) -> visits.incrementAndGet(i * cols + j));
+            forall2dChunked(0, rows - 1, 0, cols - 1, 8,
+                    (i, j) -> visits.incrementAndGet(i * cols + j));
+            for (int k = 0; k < rows * cols; k++) {
+                assertEquals(scheduler + " cell " + k, 2, visits.get(k));
+            }
+        }
+        try {
+            forall2dChunked(0, 9, 0, 9, 0, (i, j) -> { });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testIsolated() {
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            final Object a = new Object();
+            final Object b = new Object();
+            final int[] counts = new int[3];
+            forallChunked(0, 9999, 1, (i) -> {
+                isolated(() -> counts[0]++);
+                isolated(a, () -> counts[1]++);
+                isolated(b, a, () -> counts[2]++);
+            });
+            assertEquals(scheduler.toString(), 10000, counts[0]);
+            assertEquals(scheduler.toString(), 10000, counts[1]);
+            assertEquals(scheduler.toString(), 10000, counts[2]);
+        }
+    }
+
+    public void testFailuresPropagate() {
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            try {
+                finish(() -> {
+                    async(() -> {
+                        throw new IllegalArgumentException("boom");
+                    });
+                });
+                fail("Expected the async's exception");
+            } catch (IllegalArgumentException e) {
+                assertEquals("boom", e.getMessage());
+            }
+
+            try {
+                finish(() -> {
+                    async(() -> {
+                        throw new IllegalArgumentException("one");
+                    });
+                    async(() -> {
+                        throw new IllegalStateException("two");
+                    });
+                });
+                fail("Expected the asyncs' exceptions");
+            } catch (RuntimeException e) {
+                assertEquals(2, e.getSuppressed().length);
+            }
+        }
+    }
+
+    public void testAsyncOutsideFinish() {
+        try {
+            async(() -> { });
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    public void testSchedulerNames() {
+        assertEquals(TaskScheduler.VIRTUAL_THREADS,
+                TaskScheduler.fromName("virtual-threads"));
+        assertEquals(TaskScheduler.VIRTUAL_THREADS,
+                TaskScheduler.fromName("virtual"));
+        assertEquals(TaskScheduler.WORK_STEALING,
+                TaskScheduler.fromName("work_stealing"));
+        assertEquals(TaskScheduler.WORK_STEALING,
+                TaskScheduler.fromName("ForkJoin"));
+    }
+
+    public void testUnavailableScheduler() {
+        if (TaskScheduler.VIRTUAL_THREADS.isAvailable()) {
+            return;
+        }
+        try {
+            TaskRuntime.configure(TaskScheduler.VIRTUAL_THREADS);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertEquals(TaskScheduler.WORK_STEALING, TaskRuntime.getScheduler());
+    }
+
+    /*
+     * Asyncs that mostly sleep: virtual threads overlap all the sleeps, the
+     * work-stealing pool only as many as it has workers.
+     */
+    public void testBlockingWorkload() {
+        final int tasks = 64;
+        final long sleepMillis = 5;
+        for (TaskScheduler scheduler : getSchedulers()) {
+            TaskRuntime.configure(scheduler);
+            final AtomicInteger done = new AtomicInteger();
+            final long start = System.currentTimeMillis();
+            forallChunked(0, tasks - 1, 1, (i) -> {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                done.incrementAndGet();
+            });
+            final long elapsed = System.currentTimeMillis() - start;
+            System.out.println(scheduler + ": " + tasks + " blocking asyncs"
+                    + " of " + sleepMillis + " ms took " + elapsed + " ms");
+            assertEquals(scheduler.toString(), tasks, done.get());
+        }
+    }
+}
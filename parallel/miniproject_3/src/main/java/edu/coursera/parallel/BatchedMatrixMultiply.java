@@ -0,0 +1,246 @@
+package edu.coursera.parallel;
+
+/**
+ * Wrapper class for multiplying many small, independent matrices at once.
+ *
+ * Forking a forall2d for every 4x4 to 64x64 multiply costs more than the
+ * multiply itself. The batched API instead parallelizes across the batch,
+ * giving each PCDP task a contiguous run of whole multiplies. Each multiply is
+ * done sequentially with a fully unrolled kernel for 2x2, 3x3 and 4x4 inputs
+ * and with the register-blocked {@link MatrixMultiplyKernel} for other sizes.
+ */
+public final class BatchedMatrixMultiply {
+
+    /**
+     * Default constructor.
+     */
+    private BatchedMatrixMultiply() {
+    }
+
+    /**
+     * Perform C[b] = A[b] x B[b] for every b in the batch, in parallel across
+     * the batch. The output matrices must not alias the inputs.
+     *
+     * @param A Input matrices, each with dimensions NxN
+     * @param B Input matrices, each with dimensions NxN
+     * @param C The output matrices, each with dimensions NxN
+     * @param N Size of each dimension of every matrix in the batch
+     */
+    public static void parBatchMatrixMultiply(final double[][][] A,
+            final double[][][] B, final double[][][] C, final int N) {
+        final int batch = A.length;
+        if (B.length != batch || C.length != batch) {
+            throw new IllegalArgumentException("Batch sizes differ: A="
+                    + batch + ", B=" + B.length + ", C=" + C.length);
+        }
+        ParallelPartition.forEach(batch, (b) -> {
+            seqSmallMatrixMultiply(A[b], B[b], C[b], N);
+        });
+    }
+
+    /**
+     * Perform C[b] = A[b] x B[b] for every b in the batch sequentially.
+     *
+     * @param A Input matrices, each with dimensions NxN
+     * @param B Input matrices, each with dimensions NxN
+     * @param C The output matrices, each with dimensions NxN
+     * @param N Size of each dimension of every matrix in the batch
+     */
+    public static void seqBatchMatrixMultiply(final double[][][] A,
+            final double[][][] B, final double[][][] C, final int N) {
+        for (int b = 0; b < A.length; b++) {
+            seqSmallMatrixMultiply(A[b], B[b], C[b], N);
+        }
+    }
+
+    /**
+     * Multiply a single small matrix (A x B = C) on the calling thread,
+     * picking the size-specialized kernel for N.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix, which must not alias A or B
+     * @param N Size of each dimension of the input matrices
+     */
+    public static void seqSmallMatrixMultiply(final double[][] A,
+            final double[][] B, final double[][] C, final int N) {
+        switch (N) {
+            case 2:
+                multiply2x2(A, B, C);
+                break;
+            case 3:
+                multiply3x3(A, B, C);
+                break;
+            case 4:
+                multiply4x4(A, B, C);
+                break;
+            default:
+                final int rowBlocks = MatrixMultiplyKernel.numBlocks(N,
+                        MatrixMultiplyKernel.MR);
+                final int colBlocks = MatrixMultiplyKernel.numBlocks(N,
+                        MatrixMultiplyKernel.NR);
+                for (int bi = 0; bi < rowBlocks; bi++) {
+                    for (int bj = 0; bj < colBlocks; bj++) {
+                        MatrixMultiplyKernel.multiplyBlock(A, B, C, N, bi, bj);
+                    }
+                }
+                break;
+        }
+    }
+
+    /**
+     * Fully unrolled 2x2 multiply.
+     *
+     * @param A An input matrix with dimensions 2x2
+     * @param B An input matrix with dimensions 2x2
+     * @param C The output matrix
+     */
+    private static void multiply2x2(final double[][] A, final double[][] B,
+            final double[][] C) {
+        final double[] b0 = B[0];
+        final double[] b1 = B[1];
+        final double b00 = b0[0];
+        final double b01 = b0[1];
+        final double b10 = b1[0];
+        final double b11 = b1[1];
+
+        final double[] a0 = A[0];
+        final double a00 = a0[0];
+        final double a01 = a0[1];
+        final double[] c0 = C[0];
+        c0[0] = a00 * b00 + a01 * b10;
+        c0[1] = a00 * b01 + a01 * b11;
+
+        final double[] a1 = A[1];
+        final double a10 = a1[0];
+        final double a11 = a1[1];
+        final double[] c1 = C[1];
+        c1[0] = a10 * b00 + a11 * b10;
+        c1[1] = a10 * b01 + a11 * b11;
+    }
+
+    /**
+     * Fully unrolled 3x3 multiply.
+     *
+     * @param A An input matrix with dimensions 3x3
+     * @param B An input matrix with dimensions 3x3
+     * @param C The output matrix
+     */
+    private static void multiply3x3(final double[][] A, final double[][] B,
+            final double[][] C) {
+        final double[] b0 = B[0];
+        final double[] b1 = B[1];
+        final double[] b2 = B[2];
+        final double b00 = b0[0];
+        final double b01 = b0[1];
+        final double b02 = b0[2];
+        final double b10 = b1[0];
+        final double b11 = b1[1];
+        final double b12 = b1[2];
+        final double b20 = b2[0];
+        final double b21 = b2[1];
+        final double b22 = b2[2];
+
+        final double[] a0 = A[0];
+        final double a00 = a0[0];
+        final double a01 = a0[1];
+        final double a02 = a0[2];
+        final double[] c0 = C[0];
+        c0[0] = a00 * b00 + a01 * b10 + a02 * b20;
+        c0[1] = a00 * b01 + a01 * b11 + a02 * b21;
+        c0[2] = a00 * b02 + a01 * b12 + a02 * b22;
+
+        final double[] a1 = A[1];
+        final double a10 = a1[0];
+        final double a11 = a1[1];
+        final double a12 = a1[2];
+        final double[] c1 = C[1];
+        c1[0] = a10 * b00 + a11 * b10 + a12 * b20;
+        c1[1] = a10 * b01 + a11 * b11 + a12 * b21;
+        c1[2] = a10 * b02 + a11 * b12 + a12 * b22;
+
+        final double[] a2 = A[2];
+        final double a20 = a2[0];
+        final double a21 = a2[1];
+        final double a22 = a2[2];
+        final double[] c2 = C[2];
+        c2[0] = a20 * b00 + a21 * b10 + a22 * b20;
+        c2[1] = a20 * b01 + a21 * b11 + a22 * b21;
+        c2[2] = a20 * b02 + a21 * b12 + a22 * b22;
+    }
+
+    /**
+     * Fully unrolled 4x4 multiply.
+     *
+     * @param A An input matrix with dimensions 4x4
+     * @param B An input matrix with dimensions 4x4
+     * @param C The output matrix
+     */
+    private static void multiply4x4(final double[][] A, final double[][] B,
+            final double[][] C) {
+        final double[] b0 = B[0];
+        final double[] b1 = B[1];
+        final double[] b2 = B[2];
+        final double[] b3 = B[3];
+        final double b00 = b0[0];
+        final double b01 = b0[1];
+        final double b02 = b0[2];
+        final double b03 = b0[3];
+        final double b10 = b1[0];
+        final double b11 = b1[1];
+        final double b12 = b1[2];
+        final double b13 = b1[3];
+        final double b20 = b2[0];
+        final double b21 = b2[1];
+        final double b22 = b2[2];
+        final double b23 = b2[3];
+        final double b30 = b3[0];
+        final double b31 = b3[1];
+        final double b32 = b3[2];
+        final double b33 = b3[3];
+
+        final double[] a0 = A[0];
+        final double a00 = a0[0];
+        final double a01 = a0[1];
+        final double a02 = a0[2];
+        final double a03 = a0[3];
+        final double[] c0 = C[0];
+        c0[0] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+        c0[1] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+        c0[2] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+        c0[3] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+
+        final double[] a1 = A[1];
+        final double a10 = a1[0];
+        final double a11 = a1[1];
+        final double a12 = a1[2];
+        final double a13 = a1[3];
+        final double[] c1 = C[1];
+        c1[0] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+        c1[1] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+        c1[2] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+        c1[3] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+
+        final double[] a2 = A[2];
+        final double a20 = a2[0];
+        final double a21 = a2[1];
+        final double a22 = a2[2];
+        final double a23 = a2[3];
+        final double[] c2 = C[2];
+        c2[0] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+        c2[1] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+        c2[2] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+        c2[3] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+
+        final double[] a3 = A[3];
+        final double a30 = a3[0];
+        final double a31 = a3[1];
+        final double a32 = a3[2];
+        final double a33 = a3[3];
+        final double[] c3 = C[3];
+        c3[0] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+        c3[1] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+        c3[2] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+        c3[3] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+    }
+}
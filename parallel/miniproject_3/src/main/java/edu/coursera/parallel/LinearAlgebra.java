@@ -0,0 +1,292 @@
+package edu.coursera.parallel;
+
+import java.util.Arrays;
+
+/**
+ * Parallel BLAS level 1 and 2 style operations to use around
+ * {@link MatrixMultiply}: transpose, matrix-vector product, AXPY, dot product
+ * and vector norms. All of them split their work with the shared
+ * {@link ParallelPartition} policy. Reductions combine per-chunk partial
+ * results in chunk order, so results do not depend on task scheduling.
+ */
+public final class LinearAlgebra {
+
+    /**
+     * Edge length of the square tiles used by {@link #parTranspose}, chosen
+     * so that a source and destination tile fit in L1 together.
+     */
+    public static final int TRANSPOSE_TILE = 32;
+
+    /**
+     * Default constructor.
+     */
+    private LinearAlgebra() {
+    }
+
+    /**
+     * A reduction over a contiguous range of vector elements.
+     */
+    private interface RangeReduction {
+        /**
+         * Reduce elements start (inclusive) to end (exclusive).
+         *
+         * @param start First element of the range
+         * @param end Last element of the range (exclusive)
+         * @return The partial result for the range
+         */
+        double apply(int start, int end);
+    }
+
+    /**
+     * Compute the transpose of A into At in parallel, one band of tile rows
+     * per task, copying square tiles so reads and writes both stay in cache.
+     *
+     * @param A An input matrix with dimensions rows x cols
+     * @param At The output matrix with dimensions cols x rows
+     * @param rows Number of rows of A
+     * @param cols Number of columns of A
+     */
+    public static void parTranspose(final double[][] A, final double[][] At,
+            final int rows, final int cols) {
+        final int tileRows = (rows + TRANSPOSE_TILE - 1) / TRANSPOSE_TILE;
+        ParallelPartition.forEach(tileRows, (ti) -> {
+            final int i0 = ti * TRANSPOSE_TILE;
+            final int i1 = Math.min(rows, i0 + TRANSPOSE_TILE);
+            for (int j0 = 0; j0 < cols; j0 += TRANSPOSE_TILE) {
+                final int j1 = Math.min(cols, j0 + TRANSPOSE_TILE);
+                for (int i = i0; i < i1; i++) {
+                    final double[] ai = A[i];
+                    for (int j = j0; j < j1; j++) {
+                        At[j][i] = ai[j];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Matrix-vector product with BLAS GEMV semantics, computed in parallel:
+     * y = alpha * op(A) x + beta * y, where op(A) is A or its transpose. When
+     * beta is zero y is not read.
+     *
+     * @param transA Whether to use the transpose of A
+     * @param M Number of rows of A
+     * @param N Number of columns of A
+     * @param alpha Scale applied to the product
+     * @param A An input matrix with dimensions MxN
+     * @param x Input vector, of length N if not transposed and M otherwise
+     * @param beta Scale applied to the previous contents of y
+     * @param y Output vector, of length M if not transposed and N otherwise
+     */
+    public static void parGemv(final boolean transA, final int M, final int N,
+            final double alpha, final double[][] A, final double[] x,
+            final double beta, final double[] y) {
+        if (!transA) {
+            ParallelPartition.forEach(M, (i) -> {
+                final double[] ai = A[i];
+                double sum = 0.0;
+                for (int j = 0; j < N; j++) {
+                    sum += ai[j] * x[j];
+                }
+                y[i] = beta == 0.0 ? alpha * sum : alpha * sum + beta * y[i];
+            });
+        } else {
+            /*
+             * Each task owns a band of y and walks A row by row, so A is read
+             * contiguously and no two tasks write the same element.
+             */
+            ParallelPartition.forEachChunk(N, (j0, j1) -> {
+                if (beta == 0.0) {
+                    Arrays.fill(y, j0, j1, 0.0);
+                } else if (beta != 1.0) {
+                    for (int j = j0; j < j1; j++) {
+                        y[j] *= beta;
+                    }
+                }
+                for (int i = 0; i < M; i++) {
+                    final double a = alpha * x[i];
+                    final double[] ai = A[i];
+                    for (int j = j0; j < j1; j++) {
+                        y[j] += a * ai[j];
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Compute y = alpha * x + y in parallel.
+     *
+     * @param n Number of elements to update
+     * @param alpha Scale applied to x
+     * @param x Input vector
+     * @param y Vector updated in place
+     */
+    public static void parAxpy(final int n, final double alpha,
+            final double[] x, final double[] y) {
+        ParallelPartition.forEachChunk(n, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                y[i] += alpha * x[i];
+            }
+        });
+    }
+
+    /**
+     * Compute the dot product of x and y in parallel.
+     *
+     * @param n Number of elements to combine
+     * @param x Input vector
+     * @param y Input vector
+     * @return The sum of x[i] * y[i]
+     */
+    public static double parDot(final int n, final double[] x,
+            final double[] y) {
+        return parSum(n, (start, end) -> {
+            double sum = 0.0;
+            for (int i = start; i < end; i++) {
+                sum += x[i] * y[i];
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * Compute the Euclidean (L2) norm of x in parallel without intermediate
+     * overflow or underflow. As in the reference BLAS dnrm2, each chunk keeps
+     * its sum of squares scaled by the largest magnitude seen so far, so the
+     * result is accurate even for elements around 1e155 or 1e-160 whose
+     * squares are out of range. The per-chunk (scale, ssq) pairs are merged
+     * in chunk order by rescaling them to the largest scale. A NaN element
+     * marks its chunk's scale as NaN, so that it is not lost to the
+     * zero-scale and infinite-scale shortcuts of the merge.
+     *
+     * @param n Number of elements to combine
+     * @param x Input vector
+     * @return The square root of the sum of squares of x, or NaN if any
+     *         element of x is NaN
+     */
+    public static double parNorm2(final int n, final double[] x) {
+        if (n <= 0) {
+            return 0.0;
+        }
+        final int size = ParallelPartition.chunkSize(n);
+        final int nChunks = (n + size - 1) / size;
+        final double[] scales = new double[nChunks];
+        final double[] ssqs = new double[nChunks];
+        ParallelPartition.forEachChunk(n, (start, end) -> {
+            double scale = 0.0;
+            double ssq = 1.0;
+            for (int i = start; i < end; i++) {
+                if (x[i] != 0.0) {
+                    final double a = Math.abs(x[i]);
+                    if (Double.isNaN(a)) {
+                        scale = Double.NaN;
+                        break;
+                    }
+                    if (scale < a) {
+                        final double r = scale / a;
+                        ssq = 1.0 + ssq * r * r;
+                        scale = a;
+                    } else {
+                        final double r = a / scale;
+                        ssq += r * r;
+                    }
+                }
+            }
+            scales[start / size] = scale;
+            ssqs[start / size] = ssq;
+        });
+
+        double scale = 0.0;
+        for (double s : scales) {
+            if (Double.isNaN(s)) {
+                return Double.NaN;
+            }
+            scale = Math.max(scale, s);
+        }
+        if (scale == 0.0 || Double.isInfinite(scale)) {
+            return scale;
+        }
+        double ssq = 0.0;
+        for (int c = 0; c < nChunks; c++) {
+            final double r = scales[c] / scale;
+            ssq += ssqs[c] * r * r;
+        }
+        return scale * Math.sqrt(ssq);
+    }
+
+    /**
+     * Compute the L1 norm of x in parallel.
+     *
+     * @param n Number of elements to combine
+     * @param x Input vector
+     * @return The sum of absolute values of x
+     */
+    public static double parNorm1(final int n, final double[] x) {
+        return parSum(n, (start, end) -> {
+            double sum = 0.0;
+            for (int i = start; i < end; i++) {
+                sum += Math.abs(x[i]);
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * Compute the maximum (L-infinity) norm of x in parallel.
+     *
+     * @param n Number of elements to combine
+     * @param x Input vector
+     * @return The largest absolute value in x, or zero if n is zero
+     */
+    public static double parNormInf(final int n, final double[] x) {
+        final double[] partial = reduceChunks(n, (start, end) -> {
+            double max = 0.0;
+            for (int i = start; i < end; i++) {
+                max = Math.max(max, Math.abs(x[i]));
+            }
+            return max;
+        });
+        double max = 0.0;
+        for (double p : partial) {
+            max = Math.max(max, p);
+        }
+        return max;
+    }
+
+    /**
+     * Sum a reduction over [0, n) across the chunks of the shared policy.
+     *
+     * @param n Number of elements to reduce
+     * @param reduction Reduction over one chunk
+     * @return The sum of the per-chunk results
+     */
+    private static double parSum(final int n,
+            final RangeReduction reduction) {
+        double sum = 0.0;
+        for (double p : reduceChunks(n, reduction)) {
+            sum += p;
+        }
+        return sum;
+    }
+
+    /**
+     * Run a reduction on every chunk of [0, n) in parallel.
+     *
+     * @param n Number of elements to reduce
+     * @param reduction Reduction over one chunk
+     * @return The result for each chunk, in chunk order
+     */
+    private static double[] reduceChunks(final int n,
+            final RangeReduction reduction) {
+        if (n <= 0) {
+            return new double[0];
+        }
+        final int size = ParallelPartition.chunkSize(n);
+        final double[] partial = new double[(n + size - 1) / size];
+        ParallelPartition.forEachChunk(n, (start, end) -> {
+            partial[start / size] = reduction.apply(start, end);
+        });
+        return partial;
+    }
+}
@@ -1,9 +1,10 @@
 package edu.coursera.parallel;
 
-import edu.rice.pcdp.PCDP;
 import static edu.rice.pcdp.PCDP.forseq2d;
-import static edu.rice.pcdp.PCDP.forall2d;
-import static edu.rice.pcdp.PCDP.forall2dChunked;
+import static edu.coursera.parallel.MatrixMultiplyKernel.multiplyBlock;
+import static edu.coursera.parallel.MatrixMultiplyKernel.numBlocks;
+
+import java.util.Arrays;
 
 /**
  * Wrapper class for implementing matrix multiply efficiently in parallel.
@@ -34,6 +35,25 @@ public final class MatrixMultiply {
         });
     }
 
+    /**
+     * Perform a two-dimensional single-precision matrix multiply (A x B = C)
+     * sequentially.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     */
+    public static void seqMatrixMultiply(final float[][] A, final float[][] B,
+            final float[][] C, final int N) {
+        forseq2d(0, N - 1, 0, N - 1, (i, j) -> {
+            C[i][j] = 0.0f;
+            for (int k = 0; k < N; k++) {
+                C[i][j] += A[i][k] * B[k][j];
+            }
+        });
+    }
+
     /**
      * Perform a two-dimensional matrix multiply (A x B = C) in parallel.
      *
@@ -44,38 +64,193 @@ public final class MatrixMultiply {
      */
     public static void parMatrixMultiply(final double[][] A, final double[][] B,
             final double[][] C, final int N) {
-        /*
-         * TODO Parallelize this outermost two-dimension sequential loop to
-         * achieve performance improvement.
-         */
         parMatrixMultiplyDefault(A, B, C, N);
     }
     
+    /**
+     * Perform a two-dimensional single-precision matrix multiply (A x B = C)
+     * in parallel.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     */
+    public static void parMatrixMultiply(final float[][] A, final float[][] B,
+            final float[][] C, final int N) {
+        parMatrixMultiplyDefault(A, B, C, N);
+    }
+
+    /**
+     * Parallel matrix multiply over the register blocks of C, using
+     * {@link MatrixMultiplyKernel} for the leaf work. The blocks are numbered
+     * row by row and split with the shared {@link ParallelPartition} policy.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     */
     public static void parMatrixMultiplyDefault(final double[][] A, final double[][] B,
             final double[][] C, final int N) {
-        /*
-         * TODO Parallelize this outermost two-dimension sequential loop to
-         * achieve performance improvement.
-         */
-        forall2d(0, N - 1, 0, N - 1, (i, j) -> {
-            C[i][j] = 0.0;
-            for (int k = 0; k < N; k++) {
-                C[i][j] += A[i][k] * B[k][j];
-            }
+        final int rowBlocks = numBlocks(N, MatrixMultiplyKernel.MR);
+        final int colBlocks = numBlocks(N, MatrixMultiplyKernel.NR);
+        ParallelPartition.forEach(rowBlocks * colBlocks, (b) -> {
+            multiplyBlock(A, B, C, N, b / colBlocks, b % colBlocks);
         });
     }
-    
+
+    /**
+     * Single-precision parallel matrix multiply over the register blocks of C,
+     * numbered row by row and split with the shared {@link ParallelPartition}
+     * policy.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     */
+    public static void parMatrixMultiplyDefault(final float[][] A, final float[][] B,
+            final float[][] C, final int N) {
+        final int rowBlocks = numBlocks(N, MatrixMultiplyKernel.MR);
+        final int colBlocks = numBlocks(N, MatrixMultiplyKernel.NR);
+        ParallelPartition.forEach(rowBlocks * colBlocks, (b) -> {
+            multiplyBlock(A, B, C, N, b / colBlocks, b % colBlocks);
+        });
+    }
+
+    /**
+     * Parallel matrix multiply that gives each task of the shared
+     * {@link ParallelPartition} policy a band of whole register-block rows of
+     * C, so a task reuses its rows of A across all columns of B. Uses
+     * {@link MatrixMultiplyKernel} for the leaf work.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     */
     public static void parMatrixMultiplyChunked(final double[][] A, final double[][] B,
             final double[][] C, final int N) {
-        /*
-         * TODO Parallelize this outermost two-dimension sequential loop to
-         * achieve performance improvement.
-         */
-        forall2dChunked(0, N - 1, 0, N - 1, PCDP.numThreads(), (i, j) -> {
-            C[i][j] = 0.0;
-            for (int k = 0; k < N; k++) {
-                C[i][j] += A[i][k] * B[k][j];
+        final int rowBlocks = numBlocks(N, MatrixMultiplyKernel.MR);
+        final int colBlocks = numBlocks(N, MatrixMultiplyKernel.NR);
+        ParallelPartition.forEachChunk(rowBlocks, (bi0, bi1) -> {
+            for (int bi = bi0; bi < bi1; bi++) {
+                for (int bj = 0; bj < colBlocks; bj++) {
+                    multiplyBlock(A, B, C, N, bi, bj);
+                }
+            }
+        });
+    }
+
+    /**
+     * Single-precision parallel matrix multiply that gives each task of the
+     * shared {@link ParallelPartition} policy a band of whole register-block
+     * rows of C.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     */
+    public static void parMatrixMultiplyChunked(final float[][] A, final float[][] B,
+            final float[][] C, final int N) {
+        final int rowBlocks = numBlocks(N, MatrixMultiplyKernel.MR);
+        final int colBlocks = numBlocks(N, MatrixMultiplyKernel.NR);
+        ParallelPartition.forEachChunk(rowBlocks, (bi0, bi1) -> {
+            for (int bi = bi0; bi < bi1; bi++) {
+                for (int bj = 0; bj < colBlocks; bj++) {
+                    multiplyBlock(A, B, C, N, bi, bj);
+                }
             }
         });
     }
+
+    /**
+     * General matrix multiply with BLAS GEMM semantics, computed in parallel
+     * and in place: C = alpha * op(A) x op(B) + beta * C, where op(X) is X or
+     * its transpose. When beta is zero C is not read, so it may hold garbage.
+     * No temporary matrices are allocated.
+     *
+     * @param transA Whether to use the transpose of A
+     * @param transB Whether to use the transpose of B
+     * @param M Number of rows of op(A) and C
+     * @param N Number of columns of op(B) and C
+     * @param K Number of columns of op(A) and rows of op(B)
+     * @param alpha Scale applied to the product
+     * @param A An input matrix, MxK if not transposed and KxM otherwise
+     * @param B An input matrix, KxN if not transposed and NxK otherwise
+     * @param beta Scale applied to the previous contents of C
+     * @param C The MxN matrix that is updated in place
+     */
+    public static void parGemm(final boolean transA, final boolean transB,
+            final int M, final int N, final int K, final double alpha,
+            final double[][] A, final double[][] B, final double beta,
+            final double[][] C) {
+        ParallelPartition.forEach(M, (i) -> {
+            gemmRow(transA, transB, i, N, K, alpha, A, B, beta, C[i]);
+        });
+    }
+
+    /**
+     * Compute row i of a GEMM update. When B is not transposed the row is
+     * accumulated as a sequence of scaled rows of B, so B is read row-wise;
+     * otherwise each element is a dot product with a row of B.
+     *
+     * @param transA Whether to use the transpose of A
+     * @param transB Whether to use the transpose of B
+     * @param i Row of C to compute
+     * @param N Number of columns of op(B) and C
+     * @param K Number of columns of op(A) and rows of op(B)
+     * @param alpha Scale applied to the product
+     * @param A An input matrix
+     * @param B An input matrix
+     * @param beta Scale applied to the previous contents of C
+     * @param ci Row i of C
+     */
+    private static void gemmRow(final boolean transA, final boolean transB,
+            final int i, final int N, final int K, final double alpha,
+            final double[][] A, final double[][] B, final double beta,
+            final double[] ci) {
+        if (!transB) {
+            if (beta == 0.0) {
+                Arrays.fill(ci, 0, N, 0.0);
+            } else if (beta != 1.0) {
+                for (int j = 0; j < N; j++) {
+                    ci[j] *= beta;
+                }
+            }
+            if (alpha == 0.0) {
+                return;
+            }
+            for (int k = 0; k < K; k++) {
+                final double a = alpha * (transA ? A[k][i] : A[i][k]);
+                if (a == 0.0) {
+                    continue;
+                }
+                final double[] bk = B[k];
+                for (int j = 0; j < N; j++) {
+                    ci[j] += a * bk[j];
+                }
+            }
+        } else {
+            for (int j = 0; j < N; j++) {
+                final double[] bj = B[j];
+                double sum = 0.0;
+                if (alpha != 0.0) {
+                    if (transA) {
+                        for (int k = 0; k < K; k++) {
+                            sum += A[k][i] * bj[k];
+                        }
+                    } else {
+                        final double[] ai = A[i];
+                        for (int k = 0; k < K; k++) {
+                            sum += ai[k] * bj[k];
+                        }
+                    }
+                }
+                ci[j] = beta == 0.0 ? alpha * sum : alpha * sum + beta * ci[j];
+            }
+        }
+    }
 }
@@ -0,0 +1,423 @@
+package edu.coursera.parallel;
+
+/**
+ * Register-blocked micro-kernel used as the leaf work of the matrix multiply
+ * strategies in {@link MatrixMultiply}.
+ *
+ * Each call to {@link #multiplyBlock} computes an MRxNR block of C while
+ * keeping all MRxNR partial sums in local variables, so every element of the
+ * block is stored exactly once and each step of the k loop performs MR*NR
+ * multiply-adds for MR+NR loads. Partial blocks at the right and bottom edges
+ * fall back to a scalar loop. Both paths accumulate over k in increasing order,
+ * so results are bitwise identical to the naive triple loop.
+ *
+ * Every method has a single-precision overload that also accumulates in float,
+ * halving the memory traffic of the double path.
+ */
+public final class MatrixMultiplyKernel {
+
+    /**
+     * Number of rows of C computed per register block.
+     */
+    public static final int MR = 4;
+
+    /**
+     * Number of columns of C computed per register block.
+     */
+    public static final int NR = 8;
+
+    /**
+     * Default constructor.
+     */
+    private MatrixMultiplyKernel() {
+    }
+
+    /**
+     * Number of register blocks needed to cover count rows or columns.
+     *
+     * @param count Number of rows or columns
+     * @param blockSize Rows or columns per block
+     * @return Number of blocks, rounded up
+     */
+    public static int numBlocks(final int count, final int blockSize) {
+        return (count + blockSize - 1) / blockSize;
+    }
+
+    /**
+     * Compute the block of C = A x B that starts at row (blockRow * MR) and
+     * column (blockCol * NR), overwriting the previous contents of C.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     * @param blockRow Index of the block along the rows of C
+     * @param blockCol Index of the block along the columns of C
+     */
+    public static void multiplyBlock(final double[][] A, final double[][] B,
+            final double[][] C, final int N, final int blockRow,
+            final int blockCol) {
+        final int i0 = blockRow * MR;
+        final int j0 = blockCol * NR;
+        if (i0 + MR <= N && j0 + NR <= N) {
+            multiplyFullBlock(A, B, C, N, i0, j0);
+        } else {
+            multiplyEdgeBlock(A, B, C, N, i0, Math.min(i0 + MR, N), j0,
+                    Math.min(j0 + NR, N));
+        }
+    }
+
+    /**
+     * Single-precision variant of the block multiply, computing the block of
+     * C = A x B that starts at row (blockRow * MR) and column (blockCol * NR).
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     * @param blockRow Index of the block along the rows of C
+     * @param blockCol Index of the block along the columns of C
+     */
+    public static void multiplyBlock(final float[][] A, final float[][] B,
+            final float[][] C, final int N, final int blockRow,
+            final int blockCol) {
+        final int i0 = blockRow * MR;
+        final int j0 = blockCol * NR;
+        if (i0 + MR <= N && j0 + NR <= N) {
+            multiplyFullBlock(A, B, C, N, i0, j0);
+        } else {
+            multiplyEdgeBlock(A, B, C, N, i0, Math.min(i0 + MR, N), j0,
+                    Math.min(j0 + NR, N));
+        }
+    }
+
+    /**
+     * Compute a complete 4x8 block of C with all partial sums in registers.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     * @param i0 First row of the block
+     * @param j0 First column of the block
+     */
+    private static void multiplyFullBlock(final double[][] A,
+            final double[][] B, final double[][] C, final int N, final int i0,
+            final int j0) {
+        final double[] a0 = A[i0];
+        final double[] a1 = A[i0 + 1];
+        final double[] a2 = A[i0 + 2];
+        final double[] a3 = A[i0 + 3];
+
+        double c00 = 0.0;
+        double c01 = 0.0;
+        double c02 = 0.0;
+        double c03 = 0.0;
+        double c04 = 0.0;
+        double c05 = 0.0;
+        double c06 = 0.0;
+        double c07 = 0.0;
+        double c10 = 0.0;
+        double c11 = 0.0;
+        double c12 = 0.0;
+        double c13 = 0.0;
+        double c14 = 0.0;
+        double c15 = 0.0;
+        double c16 = 0.0;
+        double c17 = 0.0;
+        double c20 = 0.0;
+        double c21 = 0.0;
+        double c22 = 0.0;
+        double c23 = 0.0;
+        double c24 = 0.0;
+        double c25 = 0.0;
+        double c26 = 0.0;
+        double c27 = 0.0;
+        double c30 = 0.0;
+        double c31 = 0.0;
+        double c32 = 0.0;
+        double c33 = 0.0;
+        double c34 = 0.0;
+        double c35 = 0.0;
+        double c36 = 0.0;
+        double c37 = 0.0;
+
+        for (int k = 0; k < N; k++) {
+            final double[] bk = B[k];
+            final double b0 = bk[j0];
+            final double b1 = bk[j0 + 1];
+            final double b2 = bk[j0 + 2];
+            final double b3 = bk[j0 + 3];
+            final double b4 = bk[j0 + 4];
+            final double b5 = bk[j0 + 5];
+            final double b6 = bk[j0 + 6];
+            final double b7 = bk[j0 + 7];
+
+            final double a0k = a0[k];
+            c00 += a0k * b0;
+            c01 += a0k * b1;
+            c02 += a0k * b2;
+            c03 += a0k * b3;
+            c04 += a0k * b4;
+            c05 += a0k * b5;
+            c06 += a0k * b6;
+            c07 += a0k * b7;
+
+            final double a1k = a1[k];
+            c10 += a1k * b0;
+            c11 += a1k * b1;
+            c12 += a1k * b2;
+            c13 += a1k * b3;
+            c14 += a1k * b4;
+            c15 += a1k * b5;
+            c16 += a1k * b6;
+            c17 += a1k * b7;
+
+            final double a2k = a2[k];
+            c20 += a2k * b0;
+            c21 += a2k * b1;
+            c22 += a2k * b2;
+            c23 += a2k * b3;
+            c24 += a2k * b4;
+            c25 += a2k * b5;
+            c26 += a2k * b6;
+            c27 += a2k * b7;
+
+            final double a3k = a3[k];
+            c30 += a3k * b0;
+            c31 += a3k * b1;
+            c32 += a3k * b2;
+            c33 += a3k * b3;
+            c34 += a3k * b4;
+            c35 += a3k * b5;
+            c36 += a3k * b6;
+            c37 += a3k * b7;
+        }
+
+        store(C[i0], j0, c00, c01, c02, c03, c04, c05, c06, c07);
+        store(C[i0 + 1], j0, c10, c11, c12, c13, c14, c15, c16, c17);
+        store(C[i0 + 2], j0, c20, c21, c22, c23, c24, c25, c26, c27);
+        store(C[i0 + 3], j0, c30, c31, c32, c33, c34, c35, c36, c37);
+    }
+
+    /**
+     * Compute a complete 4x8 block of C with all partial sums in registers.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     * @param i0 First row of the block
+     * @param j0 First column of the block
+     */
+    private static void multiplyFullBlock(final float[][] A,
+            final float[][] B, final float[][] C, final int N, final int i0,
+            final int j0) {
+        final float[] a0 = A[i0];
+        final float[] a1 = A[i0 + 1];
+        final float[] a2 = A[i0 + 2];
+        final float[] a3 = A[i0 + 3];
+
+        float c00 = 0.0f;
+        float c01 = 0.0f;
+        float c02 = 0.0f;
+        float c03 = 0.0f;
+        float c04 = 0.0f;
+        float c05 = 0.0f;
+        float c06 = 0.0f;
+        float c07 = 0.0f;
+        float c10 = 0.0f;
+        float c11 = 0.0f;
+        float c12 = 0.0f;
+        float c13 = 0.0f;
+        float c14 = 0.0f;
+        float c15 = 0.0f;
+        float c16 = 0.0f;
+        float c17 = 0.0f;
+        float c20 = 0.0f;
+        float c21 = 0.0f;
+        float c22 = 0.0f;
+        float c23 = 0.0f;
+        float c24 = 0.0f;
+        float c25 = 0.0f;
+        float c26 = 0.0f;
+        float c27 = 0.0f;
+        float c30 = 0.0f;
+        float c31 = 0.0f;
+        float c32 = 0.0f;
+        float c33 = 0.0f;
+        float c34 = 0.0f;
+        float c35 = 0.0f;
+        float c36 = 0.0f;
+        float c37 = 0.0f;
+
+        for (int k = 0; k < N; k++) {
+            final float[] bk = B[k];
+            final float b0 = bk[j0];
+            final float b1 = bk[j0 + 1];
+            final float b2 = bk[j0 + 2];
+            final float b3 = bk[j0 + 3];
+            final float b4 = bk[j0 + 4];
+            final float b5 = bk[j0 + 5];
+            final float b6 = bk[j0 + 6];
+            final float b7 = bk[j0 + 7];
+
+            final float a0k = a0[k];
+            c00 += a0k * b0;
+            c01 += a0k * b1;
+            c02 += a0k * b2;
+            c03 += a0k * b3;
+            c04 += a0k * b4;
+            c05 += a0k * b5;
+            c06 += a0k * b6;
+            c07 += a0k * b7;
+
+            final float a1k = a1[k];
+            c10 += a1k * b0;
+            c11 += a1k * b1;
+            c12 += a1k * b2;
+            c13 += a1k * b3;
+            c14 += a1k * b4;
+            c15 += a1k * b5;
+            c16 += a1k * b6;
+            c17 += a1k * b7;
+
+            final float a2k = a2[k];
+            c20 += a2k * b0;
+            c21 += a2k * b1;
+            c22 += a2k * b2;
+            c23 += a2k * b3;
+            c24 += a2k * b4;
+            c25 += a2k * b5;
+            c26 += a2k * b6;
+            c27 += a2k * b7;
+
+            final float a3k = a3[k];
+            c30 += a3k * b0;
+            c31 += a3k * b1;
+            c32 += a3k * b2;
+            c33 += a3k * b3;
+            c34 += a3k * b4;
+            c35 += a3k * b5;
+            c36 += a3k * b6;
+            c37 += a3k * b7;
+        }
+
+        store(C[i0], j0, c00, c01, c02, c03, c04, c05, c06, c07);
+        store(C[i0 + 1], j0, c10, c11, c12, c13, c14, c15, c16, c17);
+        store(C[i0 + 2], j0, c20, c21, c22, c23, c24, c25, c26, c27);
+        store(C[i0 + 3], j0, c30, c31, c32, c33, c34, c35, c36, c37);
+    }
+
+    /**
+     * Write one row of a register block back to C.
+     *
+     * @param row Row of C to write into
+     * @param j0 First column of the block
+     * @param v0 Value for column j0
+     * @param v1 Value for column j0 + 1
+     * @param v2 Value for column j0 + 2
+     * @param v3 Value for column j0 + 3
+     * @param v4 Value for column j0 + 4
+     * @param v5 Value for column j0 + 5
+     * @param v6 Value for column j0 + 6
+     * @param v7 Value for column j0 + 7
+     */
+    private static void store(final double[] row, final int j0,
+            final double v0, final double v1, final double v2,
+            final double v3, final double v4, final double v5,
+            final double v6, final double v7) {
+        row[j0] = v0;
+        row[j0 + 1] = v1;
+        row[j0 + 2] = v2;
+        row[j0 + 3] = v3;
+        row[j0 + 4] = v4;
+        row[j0 + 5] = v5;
+        row[j0 + 6] = v6;
+        row[j0 + 7] = v7;
+    }
+
+    /**
+     * Write one row of a register block back to C.
+     *
+     * @param row Row of C to write into
+     * @param j0 First column of the block
+     * @param v0 Value for column j0
+     * @param v1 Value for column j0 + 1
+     * @param v2 Value for column j0 + 2
+     * @param v3 Value for column j0 + 3
+     * @param v4 Value for column j0 + 4
+     * @param v5 Value for column j0 + 5
+     * @param v6 Value for column j0 + 6
+     * @param v7 Value for column j0 + 7
+     */
+    private static void store(final float[] row, final int j0,
+            final float v0, final float v1, final float v2,
+            final float v3, final float v4, final float v5,
+            final float v6, final float v7) {
+        row[j0] = v0;
+        row[j0 + 1] = v1;
+        row[j0 + 2] = v2;
+        row[j0 + 3] = v3;
+        row[j0 + 4] = v4;
+        row[j0 + 5] = v5;
+        row[j0 + 6] = v6;
+        row[j0 + 7] = v7;
+    }
+
+    /**
+     * Scalar fallback for blocks that are cut off by the edge of the matrix.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     * @param rowStart First row to compute (inclusive)
+     * @param rowEnd Last row to compute (exclusive)
+     * @param colStart First column to compute (inclusive)
+     * @param colEnd Last column to compute (exclusive)
+     */
+    private static void multiplyEdgeBlock(final double[][] A,
+            final double[][] B, final double[][] C, final int N,
+            final int rowStart, final int rowEnd, final int colStart,
+            final int colEnd) {
+        for (int i = rowStart; i < rowEnd; i++) {
+            final double[] ai = A[i];
+            for (int j = colStart; j < colEnd; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < N; k++) {
+                    sum += ai[k] * B[k][j];
+                }
+                C[i][j] = sum;
+            }
+        }
+    }
+
+    /**
+     * Scalar fallback for blocks that are cut off by the edge of the matrix.
+     *
+     * @param A An input matrix with dimensions NxN
+     * @param B An input matrix with dimensions NxN
+     * @param C The output matrix
+     * @param N Size of each dimension of the input matrices
+     * @param rowStart First row to compute (inclusive)
+     * @param rowEnd Last row to compute (exclusive)
+     * @param colStart First column to compute (inclusive)
+     * @param colEnd Last column to compute (exclusive)
+     */
+    private static void multiplyEdgeBlock(final float[][] A,
+            final float[][] B, final float[][] C, final int N,
+            final int rowStart, final int rowEnd, final int colStart,
+            final int colEnd) {
+        for (int i = rowStart; i < rowEnd; i++) {
+            final float[] ai = A[i];
+            for (int j = colStart; j < colEnd; j++) {
+                float sum = 0.0f;
+                for (int k = 0; k < N; k++) {
+                    sum += ai[k] * B[k][j];
+                }
+                C[i][j] = sum;
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package edu.coursera.parallel;
+
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Wrapper class for multiplying matrices that are too large to keep on the
+ * heap. Matrices live in binary files holding their elements as row-major
+ * big-endian doubles with no header, the format written by
+ * {@link java.io.DataOutputStream#writeDouble}.
+ *
+ * The product is computed one panel of C rows at a time. For each C panel,
+ * the matching panel of A rows is loaded once and B is streamed through in
+ * panels of rows, so A is read once, C is written once and B is read once per
+ * C panel. B panels are visited in alternating (snake) order, so the last B
+ * panel of one pass is reused as the first panel of the next without being
+ * reloaded. Within each panel, rows of C are computed in parallel with PCDP.
+ * Each file is mapped once for the whole multiply, and C is forced to disk
+ * once at the end.
+ */
+public final class OutOfCoreMatrixMultiply {
+
+    /**
+     * Size of one matrix element in the file.
+     */
+    private static final int BYTES_PER_DOUBLE = 8;
+
+    /**
+     * Most elements one mapping can cover, as a MappedByteBuffer is indexed
+     * by int.
+     */
+    private static final long MAX_MAPPED = Integer.MAX_VALUE / BYTES_PER_DOUBLE;
+
+    /**
+     * Default constructor.
+     */
+    private OutOfCoreMatrixMultiply() {
+    }
+
+    /**
+     * Multiply the MxK matrix in aFile by the KxN matrix in bFile and store
+     * the MxN product in cFile, which is created or overwritten. Tile sizes
+     * are chosen so that the heap-resident panels fit in memoryBudget bytes.
+     *
+     * @param aFile File holding A
+     * @param bFile File holding B
+     * @param cFile File receiving C
+     * @param M Number of rows of A and C
+     * @param N Number of columns of B and C
+     * @param K Number of columns of A and rows of B
+     * @param memoryBudget Heap bytes to spend on A, B and C panels, at least
+     *        enough for one row each of A, B and C
+     * @throws IOException If any of the files cannot be mapped
+     */
+    public static void parMatrixMultiply(final Path aFile, final Path bFile,
+            final Path cFile, final int M, final int N, final int K,
+            final long memoryBudget) throws IOException {
+        final long budget = memoryBudget / BYTES_PER_DOUBLE;
+        if (budget < (long) K + 2L * N) {
+            throw new IllegalArgumentException("A memory budget of "
+                    + memoryBudget + " bytes cannot hold one row each of A, B"
+                    + " and C");
+        }
+
+        // B gets up to a quarter of the budget, but leaves room for at
+        // least one row of A and C
+        final long kLimit = Math.min(Math.min(budget / 4 / Math.max(1, N),
+                    (budget - K - N) / Math.max(1, N)),
+                MAX_MAPPED / Math.max(1, N));
+        final int kTile = (int) Math.max(1, Math.min(K, kLimit));
+        final long rowLimit = Math.min(
+                (budget - (long) kTile * N) / Math.max(1, K + N),
+                MAX_MAPPED / Math.max(1, Math.max(K, N)));
+        final int rowTile = (int) Math.max(1, Math.min(M, rowLimit));
+
+        parMatrixMultiply(aFile, bFile, cFile, M, N, K, rowTile, kTile);
+    }
+
+    /**
+     * Multiply the MxK matrix in aFile by the KxN matrix in bFile and store
+     * the MxN product in cFile, using explicit panel sizes.
+     *
+     * @param aFile File holding A
+     * @param bFile File holding B
+     * @param cFile File receiving C
+     * @param M Number of rows of A and C
+     * @param N Number of columns of B and C
+     * @param K Number of columns of A and rows of B
+     * @param rowTile Number of rows of A and C per panel
+     * @param kTile Number of rows of B per panel
+     * @throws IOException If any of the files cannot be mapped
+     */
+    public static void parMatrixMultiply(final Path aFile, final Path bFile,
+            final Path cFile, final int M, final int N, final int K,
+            final int rowTile, final int kTile) throws IOException {
+        if (rowTile <= 0 || kTile <= 0) {
+            throw new IllegalArgumentException("Tile sizes must be positive: "
+                    + rowTile + ", " + kTile);
+        }
+
+        final double[][] aPanel = new double[Math.min(rowTile, M)][K];
+        final double[][] bPanel = new double[Math.min(kTile, K)][N];
+        final double[][] cPanel = new double[Math.min(rowTile, M)][N];
+        final int kPanels = (K + kTile - 1) / kTile;
+
+        try (FileChannel aChannel = FileChannel.open(aFile,
+                    StandardOpenOption.READ);
+                FileChannel bChannel = FileChannel.open(bFile,
+                    StandardOpenOption.READ);
+                FileChannel cChannel = FileChannel.open(cFile,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE)) {
+            cChannel.truncate((long) M * N * BYTES_PER_DOUBLE);
+            final MappedMatrix aMapped = new MappedMatrix(aChannel,
+                    FileChannel.MapMode.READ_ONLY, M, K);
+            final MappedMatrix bMapped = new MappedMatrix(bChannel,
+                    FileChannel.MapMode.READ_ONLY, K, N);
+            final MappedMatrix cMapped = new MappedMatrix(cChannel,
+                    FileChannel.MapMode.READ_WRITE, M, N);
+
+            int loadedKPanel = -1;
+            int pass = 0;
+            for (int i0 = 0; i0 < M; i0 += rowTile, pass++) {
+                final int rows = Math.min(rowTile, M - i0);
+                aMapped.readRows(aPanel, i0, rows);
+                for (int r = 0; r < rows; r++) {
+                    Arrays.fill(cPanel[r], 0, N, 0.0);
+                }
+
+                for (int step = 0; step < kPanels; step++) {
+                    final int kp = (pass % 2 == 0) ? step : kPanels - 1 - step;
+                    final int k0 = kp * kTile;
+                    final int depth = Math.min(kTile, K - k0);
+                    if (kp != loadedKPanel) {
+                        bMapped.readRows(bPanel, k0, depth);
+                        loadedKPanel = kp;
+                    }
+                    multiplyPanel(aPanel, bPanel, cPanel, rows, N, k0, depth);
+                }
+
+                cMapped.writeRows(cPanel, i0, rows);
+            }
+            cMapped.force();
+        }
+    }
+
+    /**
+     * Accumulate the contribution of one panel of B rows into the C panel,
+     * in parallel across the rows of C.
+     *
+     * @param aPanel Rows of A matching the C panel
+     * @param bPanel Rows k0 to k0 + depth - 1 of B
+     * @param cPanel Heap-resident panel of C rows
+     * @param rows Number of valid rows in the A and C panels
+     * @param N Number of columns of B and C
+     * @param k0 Index of the first row of B in bPanel
+     * @param depth Number of valid rows in bPanel
+     */
+    private static void multiplyPanel(final double[][] aPanel,
+            final double[][] bPanel, final double[][] cPanel, final int rows,
+            final int N, final int k0, final int depth) {
+        ParallelPartition.forEach(rows, (r) -> {
+            final double[] ar = aPanel[r];
+            final double[] cr = cPanel[r];
+            for (int kk = 0; kk < depth; kk++) {
+                final double a = ar[k0 + kk];
+                final double[] bk = bPanel[kk];
+                for (int j = 0; j < N; j++) {
+                    cr[j] += a * bk[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Write a heap matrix to a file in the format used by this class.
+     *
+     * @param file File to create or overwrite
+     * @param X Matrix to write
+     * @param rows Number of rows of X
+     * @param cols Number of columns of X
+     * @throws IOException If the file cannot be mapped
+     */
+    public static void writeMatrix(final Path file, final double[][] X,
+            final int rows, final int cols) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE)) {
+            channel.truncate((long) rows * cols * BYTES_PER_DOUBLE);
+            final MappedMatrix mapped = new MappedMatrix(channel,
+                    FileChannel.MapMode.READ_WRITE, rows, cols);
+            mapped.writeRows(X, 0, rows);
+            mapped.force();
+        }
+    }
+
+    /**
+     * Read a whole matrix file in the format used by this class onto the
+     * heap.
+     *
+     * @param file File to read
+     * @param rows Number of rows of the stored matrix
+     * @param cols Number of columns of the stored matrix
+     * @return The matrix
+     * @throws IOException If the file cannot be mapped
+     */
+    public static double[][] readMatrix(final Path file, final int rows,
+            final int cols) throws IOException {
+        final double[][] X = new double[rows][cols];
+        try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ)) {
+            new MappedMatrix(channel, FileChannel.MapMode.READ_ONLY, rows,
+                    cols).readRows(X, 0, rows);
+        }
+        return X;
+    }
+
+    /**
+     * A matrix file mapped once, in as few mappings as the int-indexed
+     * buffers allow, each covering whole rows.
+     */
+    private static final class MappedMatrix {
+        /**
+         * The mappings, in file order.
+         */
+        private final MappedByteBuffer[] regions;
+
+        /**
+         * Double views of the mappings.
+         */
+        private final DoubleBuffer[] doubles;
+
+        /**
+         * Number of rows each mapping covers, the last one possibly fewer.
+         */
+        private final int rowsPerRegion;
+
+        /**
+         * Number of columns of the matrix.
+         */
+        private final int cols;
+
+        /**
+         * Map all rows of a matrix file.
+         *
+         * @param channel File holding the matrix
+         * @param mode Mapping mode
+         * @param rows Number of rows of the matrix
+         * @param setCols Number of columns of the matrix
+         * @throws IOException If the file cannot be mapped
+         */
+        MappedMatrix(final FileChannel channel,
+                final FileChannel.MapMode mode, final int rows,
+                final int setCols) throws IOException {
+            this.cols = setCols;
+            this.rowsPerRegion = (int) Math.max(1, Math.min(Math.max(1, rows),
+                        MAX_MAPPED / Math.max(1, setCols)));
+            final int nRegions = (rows + rowsPerRegion - 1) / rowsPerRegion;
+            this.regions = new MappedByteBuffer[nRegions];
+            this.doubles = new DoubleBuffer[nRegions];
+            for (int g = 0; g < nRegions; g++) {
+                final long firstRow = (long) g * rowsPerRegion;
+                final long regionRows = Math.min(rowsPerRegion,
+                        rows - firstRow);
+                regions[g] = channel.map(mode,
+                        firstRow * setCols * BYTES_PER_DOUBLE,
+                        regionRows * setCols * BYTES_PER_DOUBLE);
+                doubles[g] = regions[g].asDoubleBuffer();
+            }
+        }
+
+        /**
+         * Position the view holding a row at the start of that row.
+         *
+         * @param row Index of the row
+         * @return The positioned view
+         */
+        private DoubleBuffer seek(final int row) {
+            final DoubleBuffer view = doubles[row / rowsPerRegion];
+            view.position((row % rowsPerRegion) * cols);
+            return view;
+        }
+
+        /**
+         * Copy consecutive rows of the matrix into a heap panel.
+         *
+         * @param panel Destination rows
+         * @param firstRow Index of the first row to read
+         * @param rows Number of rows to read
+         */
+        void readRows(final double[][] panel, final int firstRow,
+                final int rows) {
+            for (int r = 0; r < rows; r++) {
+                seek(firstRow + r).get(panel[r], 0, cols);
+            }
+        }
+
+        /**
+         * Copy a heap panel into consecutive rows of the matrix.
+         *
+         * @param panel Source rows
+         * @param firstRow Index of the first row to write
+         * @param rows Number of rows to write
+         */
+        void writeRows(final double[][] panel, final int firstRow,
+                final int rows) {
+            for (int r = 0; r < rows; r++) {
+                seek(firstRow + r).put(panel[r], 0, cols);
+            }
+        }
+
+        /**
+         * Write any changes to the mapped rows back to the file.
+         */
+        void force() {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+        }
+    }
+}
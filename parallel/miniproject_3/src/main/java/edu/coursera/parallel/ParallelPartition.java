@@ -0,0 +1,79 @@
+package edu.coursera.parallel;
+
+import edu.rice.pcdp.PCDP;
+import edu.rice.pcdp.ProcedureInt1D;
+import edu.rice.pcdp.ProcedureInt2D;
+import static edu.rice.pcdp.PCDP.forall;
+import static edu.rice.pcdp.PCDP.forallChunked;
+
+/**
+ * The partitioning and scheduling policy shared by the matrix multiplies and
+ * the {@link LinearAlgebra} operations. A one-dimensional range of work is
+ * split into at most {@link PCDP#numThreads()} contiguous chunks of nearly
+ * equal size, each executed as one PCDP task, so every stage of a pipeline
+ * assigns the same rows to the same chunk.
+ */
+public final class ParallelPartition {
+
+    /**
+     * Default constructor.
+     */
+    private ParallelPartition() {
+    }
+
+    /**
+     * Number of chunks a range of count items is split into.
+     *
+     * @param count Number of items in the range
+     * @return Number of chunks, at least one
+     */
+    public static int numChunks(final int count) {
+        return Math.max(1, Math.min(count, PCDP.numThreads()));
+    }
+
+    /**
+     * Number of items in every chunk but the last.
+     *
+     * @param count Number of items in the range
+     * @return Items per chunk, at least one
+     */
+    public static int chunkSize(final int count) {
+        final int nChunks = numChunks(count);
+        return Math.max(1, (count + nChunks - 1) / nChunks);
+    }
+
+    /**
+     * Run body once per item of [0, count) in parallel, with consecutive items
+     * grouped into the chunks of this policy.
+     *
+     * @param count Number of items in the range
+     * @param body Work to run for each item
+     */
+    public static void forEach(final int count, final ProcedureInt1D body) {
+        if (count <= 0) {
+            return;
+        }
+        forallChunked(0, count - 1, chunkSize(count), body);
+    }
+
+    /**
+     * Run body once per chunk of [0, count) in parallel, passing the first
+     * (inclusive) and last (exclusive) item of the chunk. The chunk index is
+     * start / chunkSize(count).
+     *
+     * @param count Number of items in the range
+     * @param body Work to run for each chunk
+     */
+    public static void forEachChunk(final int count,
+            final ProcedureInt2D body) {
+        if (count <= 0) {
+            return;
+        }
+        final int size = chunkSize(count);
+        final int nChunks = (count + size - 1) / size;
+        forall(0, nChunks - 1, (c) -> {
+            final int start = c * size;
+            body.apply(start, Math.min(count, start + size));
+        });
+    }
+}
@@ -0,0 +1,201 @@
+package edu.coursera.parallel;
+
+/**
+ * An immutable sparse matrix stored in compressed sparse row (CSR) format.
+ *
+ * The non-zeros of row i are stored in colIdx and values at positions
+ * rowPtr[i] (inclusive) to rowPtr[i + 1] (exclusive), with column indices in
+ * increasing order. The compressed sparse column (CSC) form of a matrix is the
+ * CSR form of its transpose, see {@link #transpose()}.
+ */
+public final class SparseMatrix {
+
+    /**
+     * Number of rows in this matrix.
+     */
+    private final int rows;
+
+    /**
+     * Number of columns in this matrix.
+     */
+    private final int cols;
+
+    /**
+     * Offsets of the first non-zero of each row, of length rows + 1.
+     */
+    private final int[] rowPtr;
+
+    /**
+     * Column index of each non-zero.
+     */
+    private final int[] colIdx;
+
+    /**
+     * Value of each non-zero.
+     */
+    private final double[] values;
+
+    /**
+     * Wrap already compressed CSR arrays. The arrays are not copied.
+     *
+     * @param setRows Number of rows
+     * @param setCols Number of columns
+     * @param setRowPtr Row offsets, of length setRows + 1
+     * @param setColIdx Column index of each non-zero
+     * @param setValues Value of each non-zero
+     */
+    public SparseMatrix(final int setRows, final int setCols,
+            final int[] setRowPtr, final int[] setColIdx,
+            final double[] setValues) {
+        if (setRowPtr.length != setRows + 1) {
+            throw new IllegalArgumentException("rowPtr must have "
+                    + (setRows + 1) + " entries, found " + setRowPtr.length);
+        }
+        if (setColIdx.length != setValues.length
+                || setColIdx.length < setRowPtr[setRows]) {
+            throw new IllegalArgumentException("colIdx and values must "
+                    + "hold at least " + setRowPtr[setRows] + " entries");
+        }
+        this.rows = setRows;
+        this.cols = setCols;
+        this.rowPtr = setRowPtr;
+        this.colIdx = setColIdx;
+        this.values = setValues;
+    }
+
+    /**
+     * Compress the non-zero entries of a dense matrix.
+     *
+     * @param dense Dense input with at least nRows rows and nCols columns
+     * @param nRows Number of rows to compress
+     * @param nCols Number of columns to compress
+     * @return The CSR form of dense
+     */
+    public static SparseMatrix fromDense(final double[][] dense,
+            final int nRows, final int nCols) {
+        final int[] ptr = new int[nRows + 1];
+        for (int i = 0; i < nRows; i++) {
+            int count = 0;
+            for (int j = 0; j < nCols; j++) {
+                if (dense[i][j] != 0.0) {
+                    count++;
+                }
+            }
+            ptr[i + 1] = ptr[i] + count;
+        }
+
+        final int[] idx = new int[ptr[nRows]];
+        final double[] vals = new double[ptr[nRows]];
+        for (int i = 0; i < nRows; i++) {
+            int pos = ptr[i];
+            for (int j = 0; j < nCols; j++) {
+                if (dense[i][j] != 0.0) {
+                    idx[pos] = j;
+                    vals[pos] = dense[i][j];
+                    pos++;
+                }
+            }
+        }
+        return new SparseMatrix(nRows, nCols, ptr, idx, vals);
+    }
+
+    /**
+     * Expand this matrix into a newly allocated dense matrix.
+     *
+     * @return A rows x cols dense copy of this matrix
+     */
+    public double[][] toDense() {
+        final double[][] dense = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                dense[i][colIdx[p]] = values[p];
+            }
+        }
+        return dense;
+    }
+
+    /**
+     * Build the CSR form of the transpose of this matrix, which is also the
+     * CSC form of this matrix. Runs in O(rows + cols + nnz) with a counting
+     * sort, so column indices of the result are already ordered.
+     *
+     * @return The transpose of this matrix
+     */
+    public SparseMatrix transpose() {
+        final int nnz = getNnz();
+        final int[] ptr = new int[cols + 1];
+        for (int p = 0; p < nnz; p++) {
+            ptr[colIdx[p] + 1]++;
+        }
+        for (int j = 0; j < cols; j++) {
+            ptr[j + 1] += ptr[j];
+        }
+
+        final int[] next = new int[cols];
+        System.arraycopy(ptr, 0, next, 0, cols);
+        final int[] idx = new int[nnz];
+        final double[] vals = new double[nnz];
+        for (int i = 0; i < rows; i++) {
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                final int dst = next[colIdx[p]]++;
+                idx[dst] = i;
+                vals[dst] = values[p];
+            }
+        }
+        return new SparseMatrix(cols, rows, ptr, idx, vals);
+    }
+
+    /**
+     * Getter for the number of rows.
+     *
+     * @return The number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Getter for the number of columns.
+     *
+     * @return The number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Getter for the number of stored non-zeros.
+     *
+     * @return The number of non-zeros
+     */
+    public int getNnz() {
+        return rowPtr[rows];
+    }
+
+    /**
+     * Getter for the row offsets. The returned array must not be modified.
+     *
+     * @return The row offsets, of length rows + 1
+     */
+    public int[] getRowPtr() {
+        return rowPtr;
+    }
+
+    /**
+     * Getter for the column indices. The returned array must not be modified.
+     *
+     * @return The column index of each non-zero
+     */
+    public int[] getColIdx() {
+        return colIdx;
+    }
+
+    /**
+     * Getter for the non-zero values. The returned array must not be modified.
+     *
+     * @return The value of each non-zero
+     */
+    public double[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,193 @@
+package edu.coursera.parallel;
+
+import java.util.Arrays;
+
+/**
+ * Wrapper class for parallel multiplies involving {@link SparseMatrix}
+ * operands. Rows of the result are independent, so every operation
+ * parallelizes over contiguous chunks of rows using the shared
+ * {@link ParallelPartition} policy.
+ */
+public final class SparseMatrixMultiply {
+
+    /**
+     * Default constructor.
+     */
+    private SparseMatrixMultiply() {
+    }
+
+    /**
+     * Sparse matrix-vector multiply (A x x = y) in parallel.
+     *
+     * @param A A sparse input matrix with dimensions RxK
+     * @param x A dense input vector of length K
+     * @param y The dense output vector of length R
+     */
+    public static void parSpMV(final SparseMatrix A, final double[] x,
+            final double[] y) {
+        final int[] rowPtr = A.getRowPtr();
+        final int[] colIdx = A.getColIdx();
+        final double[] values = A.getValues();
+
+        ParallelPartition.forEach(A.getRows(), (i) -> {
+            double sum = 0.0;
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                sum += values[p] * x[colIdx[p]];
+            }
+            y[i] = sum;
+        });
+    }
+
+    /**
+     * Sparse x dense matrix multiply (A x B = C) in parallel. Each non-zero
+     * A[i][k] scales row k of B into row i of C, so B and C are streamed
+     * row-wise.
+     *
+     * @param A A sparse input matrix with dimensions RxK
+     * @param B A dense input matrix with dimensions KxM
+     * @param C The dense output matrix with dimensions RxM
+     * @param M Number of columns in B and C
+     */
+    public static void parSparseDenseMultiply(final SparseMatrix A,
+            final double[][] B, final double[][] C, final int M) {
+        final int[] rowPtr = A.getRowPtr();
+        final int[] colIdx = A.getColIdx();
+        final double[] values = A.getValues();
+
+        ParallelPartition.forEach(A.getRows(), (i) -> {
+            final double[] ci = C[i];
+            Arrays.fill(ci, 0, M, 0.0);
+            for (int p = rowPtr[i]; p < rowPtr[i + 1]; p++) {
+                final double a = values[p];
+                final double[] bk = B[colIdx[p]];
+                for (int j = 0; j < M; j++) {
+                    ci[j] += a * bk[j];
+                }
+            }
+        });
+    }
+
+    /**
+     * Sparse x sparse matrix multiply (A x B = C) in parallel using
+     * Gustavson's row-by-row algorithm.
+     *
+     * Rows of A are split into the chunks of {@link ParallelPartition}. Each
+     * chunk owns a dense accumulator of length B.getCols() that is reused
+     * across its rows, so no synchronization is needed while computing.
+     * Per-row non-zero counts are then prefix-summed and the chunks copy
+     * their results into the final CSR arrays in parallel.
+     *
+     * @param A A sparse input matrix with dimensions RxK
+     * @param B A sparse input matrix with dimensions KxM
+     * @return The sparse product with dimensions RxM
+     */
+    public static SparseMatrix parSparseSparseMultiply(final SparseMatrix A,
+            final SparseMatrix B) {
+        if (A.getCols() != B.getRows()) {
+            throw new IllegalArgumentException("Cannot multiply "
+                    + A.getRows() + "x" + A.getCols() + " by " + B.getRows()
+                    + "x" + B.getCols());
+        }
+        final int rows = A.getRows();
+        final int cols = B.getCols();
+        final int[] rowPtr = new int[rows + 1];
+        if (rows == 0) {
+            return new SparseMatrix(0, cols, rowPtr, new int[0],
+                    new double[0]);
+        }
+
+        final int chunkSize = ParallelPartition.chunkSize(rows);
+        final int nChunks = (rows + chunkSize - 1) / chunkSize;
+        final int[][] chunkIdx = new int[nChunks][];
+        final double[][] chunkVals = new double[nChunks][];
+
+        ParallelPartition.forEachChunk(rows, (rowStart, rowEnd) -> {
+            computeChunk(A, B, rowStart, rowEnd, rowPtr, chunkIdx, chunkVals,
+                    rowStart / chunkSize);
+        });
+
+        for (int i = 0; i < rows; i++) {
+            rowPtr[i + 1] += rowPtr[i];
+        }
+
+        final int[] colIdx = new int[rowPtr[rows]];
+        final double[] values = new double[rowPtr[rows]];
+        ParallelPartition.forEachChunk(rows, (rowStart, rowEnd) -> {
+            final int c = rowStart / chunkSize;
+            final int offset = rowPtr[rowStart];
+            final int count = rowPtr[rowEnd] - offset;
+            System.arraycopy(chunkIdx[c], 0, colIdx, offset, count);
+            System.arraycopy(chunkVals[c], 0, values, offset, count);
+        });
+
+        return new SparseMatrix(rows, cols, rowPtr, colIdx, values);
+    }
+
+    /**
+     * Compute rows [rowStart, rowEnd) of A x B into chunk-private storage,
+     * recording the non-zero count of row i in rowNnz[i + 1].
+     *
+     * @param A A sparse input matrix
+     * @param B A sparse input matrix
+     * @param rowStart First row of the chunk (inclusive)
+     * @param rowEnd Last row of the chunk (exclusive)
+     * @param rowNnz Per-row non-zero counts, shifted by one
+     * @param chunkIdx Receives the column indices of this chunk
+     * @param chunkVals Receives the values of this chunk
+     * @param c Index of this chunk
+     */
+    private static void computeChunk(final SparseMatrix A,
+            final SparseMatrix B, final int rowStart, final int rowEnd,
+            final int[] rowNnz, final int[][] chunkIdx,
+            final double[][] chunkVals, final int c) {
+        final int[] aPtr = A.getRowPtr();
+        final int[] aIdx = A.getColIdx();
+        final double[] aVals = A.getValues();
+        final int[] bPtr = B.getRowPtr();
+        final int[] bIdx = B.getColIdx();
+        final double[] bVals = B.getValues();
+
+        final double[] acc = new double[B.getCols()];
+        final boolean[] occupied = new boolean[B.getCols()];
+        final int[] touched = new int[B.getCols()];
+
+        int[] idx = new int[Math.max(16, aPtr[rowEnd] - aPtr[rowStart])];
+        double[] vals = new double[idx.length];
+        int size = 0;
+
+        for (int i = rowStart; i < rowEnd; i++) {
+            int nTouched = 0;
+            for (int p = aPtr[i]; p < aPtr[i + 1]; p++) {
+                final double a = aVals[p];
+                final int k = aIdx[p];
+                for (int q = bPtr[k]; q < bPtr[k + 1]; q++) {
+                    final int j = bIdx[q];
+                    if (!occupied[j]) {
+                        occupied[j] = true;
+                        touched[nTouched++] = j;
+                    }
+                    acc[j] += a * bVals[q];
+                }
+            }
+
+            Arrays.sort(touched, 0, nTouched);
+            if (size + nTouched > idx.length) {
+                final int capacity = Math.max(size + nTouched, idx.length * 2);
+                idx = Arrays.copyOf(idx, capacity);
+                vals = Arrays.copyOf(vals, capacity);
+            }
+            for (int t = 0; t < nTouched; t++) {
+                final int j = touched[t];
+                idx[size] = j;
+                vals[size] = acc[j];
+                size++;
+                acc[j] = 0.0;
+                occupied[j] = false;
+            }
+            rowNnz[i + 1] = nTouched;
+        }
+
+        chunkIdx[c] = idx;
+        chunkVals[c] = vals;
+    }
+}
@@ -0,0 +1,73 @@
+package edu.coursera.parallel;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class BatchedMatrixMultiplyTest extends TestCase {
+    // Number of matrices in each tested batch.
+    final static private int BATCH = 1000;
+
+    private double[][][] createBatch(final int batch, final int N,
+            final long seed) {
+        final double[][][] input = new double[batch][N][N];
+        final Random rand = new Random(seed);
+
+        for (int b = 0; b < batch; b++) {
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) {
+                    input[b][i][j] = rand.nextInt(100);
+                }
+            }
+        }
+        return input;
+    }
+
+    /**
+     * A reference implementation of seqMatrixMultiply, in case the one in the main source file is accidentally
+     * modified.
+     */
+    private void seqMatrixMultiply(final double[][] A, final double[][] B, final double[][] C, final int N) {
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                C[i][j] = 0.0;
+                for (int k = 0; k < N; k++) {
+                    C[i][j] += A[i][k] * B[k][j];
+                }
+            }
+        }
+    }
+
+    private void batchTestHelper(final int N) {
+        final double[][][] A = createBatch(BATCH, N, N);
+        final double[][][] B = createBatch(BATCH, N, N + 1);
+        final double[][][] C = new double[BATCH][N][N];
+        final double[][] refC = new double[N][N];
+
+        BatchedMatrixMultiply.parBatchMatrixMultiply(A, B, C, N);
+
+        for (int b = 0; b < BATCH; b++) {
+            seqMatrixMultiply(A[b], B[b], refC, N);
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) {
+                    String msg = "Error detected in matrix " + b + " on cell (" + i + ", " + j + ")";
+                    assertEquals(msg, refC[i][j], C[b][i][j]);
+                }
+            }
+        }
+    }
+
+    public void testUnrolledSizes() {
+        batchTestHelper(2);
+        batchTestHelper(3);
+        batchTestHelper(4);
+    }
+
+    public void testBlockedSizes() {
+        batchTestHelper(1);
+        batchTestHelper(5);
+        batchTestHelper(8);
+        batchTestHelper(17);
+        batchTestHelper(64);
+    }
+}
@@ -0,0 +1,130 @@
+package edu.coursera.parallel;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class LinearAlgebraTest extends TestCase {
+    final static private double EPS = 1e-9;
+
+    private double[][] createMatrix(final int rows, final int cols, final long seed) {
+        final double[][] input = new double[rows][cols];
+        final Random rand = new Random(seed);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                input[i][j] = rand.nextInt(100) - 50;
+            }
+        }
+        return input;
+    }
+
+    private double[] createVector(final int n, final long seed) {
+        return createMatrix(1, n, seed)[0];
+    }
+
+    public void testTranspose() {
+        final int rows = 101;
+        final int cols = 67;
+        final double[][] A = createMatrix(rows, cols, 1);
+        final double[][] At = new double[cols][rows];
+        LinearAlgebra.parTranspose(A, At, rows, cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                assertEquals("Error detected on cell (" + i + ", " + j + ")", A[i][j], At[j][i]);
+            }
+        }
+    }
+
+    public void testGemv() {
+        final int M = 53;
+        final int N = 41;
+        final double[][] A = createMatrix(M, N, 2);
+        final double[] x = createVector(N, 3);
+        final double[] xt = createVector(M, 4);
+        final double[] y0 = createVector(M, 5);
+        final double[] yt0 = createVector(N, 6);
+
+        final double[] y = y0.clone();
+        LinearAlgebra.parGemv(false, M, N, 2.0, A, x, -1.0, y);
+        for (int i = 0; i < M; i++) {
+            double sum = 0.0;
+            for (int j = 0; j < N; j++) {
+                sum += A[i][j] * x[j];
+            }
+            assertEquals("Error detected on row " + i, 2.0 * sum - y0[i], y[i], EPS);
+        }
+
+        final double[] yt = yt0.clone();
+        LinearAlgebra.parGemv(true, M, N, 0.5, A, xt, 3.0, yt);
+        for (int j = 0; j < N; j++) {
+            double sum = 0.0;
+            for (int i = 0; i < M; i++) {
+                sum += A[i][j] * xt[i];
+            }
+            assertEquals("Error detected on column " + j, 0.5 * sum + 3.0 * yt0[j], yt[j], EPS);
+        }
+    }
+
+    public void testAxpyDotAndNorms() {
+        final int n = 10_007;
+        final double[] x = createVector(n, 7);
+        final double[] y0 = createVector(n, 8);
+
+        final double[] y = y0.clone();
+        LinearAlgebra.parAxpy(n, -3.0, x, y);
+        for (int i = 0; i < n; i++) {
+            assertEquals("Error detected on element " + i, y0[i] - 3.0 * x[i], y[i], EPS);
+        }
+
+        double dot = 0.0;
+        double norm1 = 0.0;
+        double normInf = 0.0;
+        for (int i = 0; i < n; i++) {
+            dot += x[i] * y0[i];
+            norm1 += Math.abs(x[i]);
+            normInf = Math.max(normInf, Math.abs(x[i]));
+        }
+        assertEquals(dot, LinearAlgebra.parDot(n, x, y0), EPS);
+        assertEquals(norm1, LinearAlgebra.parNorm1(n, x), EPS);
+        assertEquals(normInf, LinearAlgebra.parNormInf(n, x), EPS);
+        assertEquals(Math.sqrt(LinearAlgebra.parDot(n, x, x)), LinearAlgebra.parNorm2(n, x), EPS);
+        assertEquals(0.0, LinearAlgebra.parNorm2(0, x), EPS);
+    }
+
+    public void testNorm2Extremes() {
+        final int n = 10_001;
+        for (double magnitude : new double[] {1e155, 1e-160, 1.0}) {
+            final double[] x = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = (i % 2 == 0 ? 3.0 : -4.0) * magnitude;
+            }
+            double expected = 0.0;
+            for (int i = 0; i < n; i++) {
+                final double r = x[i] / magnitude;
+                expected += r * r;
+            }
+            expected = Math.sqrt(expected) * magnitude;
+            final double norm = LinearAlgebra.parNorm2(n, x);
+            assertEquals("magnitude " + magnitude, 1.0, norm / expected,
+                    1e-12);
+        }
+    }
+
+    public void testNorm2PropagatesNaN() {
+        final int n = 10_001;
+        final double[] nans = new double[n];
+        Arrays.fill(nans, Double.NaN);
+        assertTrue(Double.isNaN(LinearAlgebra.parNorm2(n, nans)));
+
+        for (double other
+                : new double[] {0.0, 1.0, Double.POSITIVE_INFINITY}) {
+            final double[] x = new double[n];
+            Arrays.fill(x, other);
+            x[n / 2] = Double.NaN;
+            assertTrue("NaN among " + other,
+                    Double.isNaN(LinearAlgebra.parNorm2(n, x)));
+        }
+    }
+}
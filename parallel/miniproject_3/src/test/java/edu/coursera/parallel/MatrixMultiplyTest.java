@@ -106,6 +106,166 @@ public class MatrixMultiplyTest extends TestCase {
         return (double)seqTime / (double)parTime;
     }
 
+    /**
+     * Tests the register-blocked parallel strategies on sizes that leave
+     * partial blocks at the right and bottom edges of C.
+     */
+    public void testParStrategiesOnEdgeSizes() {
+        final int[] sizes = {1, 3, 4, 7, 8, 13, 37, 64, 101};
+        for (int N : sizes) {
+            final double[][] A = createMatrix(N);
+            final double[][] B = createMatrix(N);
+            final double[][] refC = new double[N][N];
+            seqMatrixMultiply(A, B, refC, N);
+
+            final double[][] C = new double[N][N];
+            MatrixMultiply.parMatrixMultiplyDefault(A, B, C, N);
+            checkResult(refC, C, N);
+
+            final double[][] chunkedC = new double[N][N];
+            MatrixMultiply.parMatrixMultiplyChunked(A, B, chunkedC, N);
+            checkResult(refC, chunkedC, N);
+        }
+    }
+
+    /**
+     * Create a float[][] of size NxN with values in [0, 1).
+     */
+    private float[][] createFloatMatrix(final int N, final long seed) {
+        final float[][] input = new float[N][N];
+        final Random rand = new Random(seed);
+
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                input[i][j] = rand.nextFloat();
+            }
+        }
+
+        return input;
+    }
+
+    /**
+     * Check a single-precision result against a double-precision reference, allowing for float rounding error
+     * that grows with the length of each dot product.
+     */
+    private void checkFloatResult(final double[][] ref, final float[][] output, final int N) {
+        final double tolerance = 1e-6 * N;
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                String msg = "Error detected on cell (" + i + ", " + j + ")";
+                assertEquals(msg, ref[i][j], output[i][j], tolerance * Math.max(1.0, Math.abs(ref[i][j])));
+            }
+        }
+    }
+
+    /**
+     * Tests the single-precision multiplies against a double-precision reference.
+     */
+    public void testFloatAgainstDoubleReference() {
+        final int[] sizes = {1, 7, 64, 129};
+        for (int N : sizes) {
+            final float[][] A = createFloatMatrix(N, 1);
+            final float[][] B = createFloatMatrix(N, 2);
+            final double[][] refA = new double[N][N];
+            final double[][] refB = new double[N][N];
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) {
+                    refA[i][j] = A[i][j];
+                    refB[i][j] = B[i][j];
+                }
+            }
+            final double[][] refC = new double[N][N];
+            seqMatrixMultiply(refA, refB, refC, N);
+
+            final float[][] C = new float[N][N];
+            MatrixMultiply.seqMatrixMultiply(A, B, C, N);
+            checkFloatResult(refC, C, N);
+
+            final float[][] parC = new float[N][N];
+            MatrixMultiply.parMatrixMultiply(A, B, parC, N);
+            checkFloatResult(refC, parC, N);
+
+            final float[][] chunkedC = new float[N][N];
+            MatrixMultiply.parMatrixMultiplyChunked(A, B, chunkedC, N);
+            checkFloatResult(refC, chunkedC, N);
+        }
+    }
+
+    /**
+     * Create a double[][] of size rows x cols with small random integer values.
+     */
+    private double[][] createMatrix(final int rows, final int cols, final long seed) {
+        final double[][] input = new double[rows][cols];
+        final Random rand = new Random(seed);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                input[i][j] = rand.nextInt(100) - 50;
+            }
+        }
+
+        return input;
+    }
+
+    private double[][] transpose(final double[][] X, final int rows, final int cols) {
+        final double[][] T = new double[cols][rows];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                T[j][i] = X[i][j];
+            }
+        }
+        return T;
+    }
+
+    /**
+     * Tests parGemm for every combination of transposes against alpha * A x B + beta * C computed naively.
+     */
+    public void testGemm() {
+        final int M = 37;
+        final int N = 29;
+        final int K = 43;
+        final double[][] A = createMatrix(M, K, 1);
+        final double[][] B = createMatrix(K, N, 2);
+        final double[][] C0 = createMatrix(M, N, 3);
+        final double[][] At = transpose(A, M, K);
+        final double[][] Bt = transpose(B, K, N);
+        final double[][] alphaBeta = {{1.0, 0.0}, {2.0, 1.0}, {-0.5, 3.0}, {0.0, 2.0}};
+
+        for (double[] ab : alphaBeta) {
+            final double alpha = ab[0];
+            final double beta = ab[1];
+            final double[][] ref = new double[M][N];
+            for (int i = 0; i < M; i++) {
+                for (int j = 0; j < N; j++) {
+                    double sum = 0.0;
+                    for (int k = 0; k < K; k++) {
+                        sum += A[i][k] * B[k][j];
+                    }
+                    ref[i][j] = alpha * sum + beta * C0[i][j];
+                }
+            }
+
+            for (int t = 0; t < 4; t++) {
+                final boolean transA = (t & 1) != 0;
+                final boolean transB = (t & 2) != 0;
+                final double[][] C = new double[M][N];
+                for (int i = 0; i < M; i++) {
+                    for (int j = 0; j < N; j++) {
+                        C[i][j] = beta == 0.0 ? Double.NaN : C0[i][j];
+                    }
+                }
+                MatrixMultiply.parGemm(transA, transB, M, N, K, alpha, transA ? At : A, transB ? Bt : B, beta, C);
+                for (int i = 0; i < M; i++) {
+                    for (int j = 0; j < N; j++) {
+                        String msg = "Error detected on cell (" + i + ", " + j + ") with transA=" + transA
+                            + ", transB=" + transB + ", alpha=" + alpha + ", beta=" + beta;
+                        assertEquals(msg, ref[i][j], C[i][j], 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Tests the performance of the parallel implementation on a 512x512 matrix.
      */
@@ -0,0 +1,96 @@
+package edu.coursera.parallel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class OutOfCoreMatrixMultiplyTest extends TestCase {
+
+    private double[][] createMatrix(final int rows, final int cols, final long seed) {
+        final double[][] input = new double[rows][cols];
+        final Random rand = new Random(seed);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                input[i][j] = rand.nextInt(100);
+            }
+        }
+        return input;
+    }
+
+    private double[][] reference(final double[][] A, final double[][] B, final int M, final int N, final int K) {
+        final double[][] C = new double[M][N];
+        for (int i = 0; i < M; i++) {
+            for (int j = 0; j < N; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < K; k++) {
+                    sum += A[i][k] * B[k][j];
+                }
+                C[i][j] = sum;
+            }
+        }
+        return C;
+    }
+
+    private void outOfCoreTestHelper(final int M, final int N, final int K, final int rowTile, final int kTile)
+            throws IOException {
+        final double[][] A = createMatrix(M, K, 1);
+        final double[][] B = createMatrix(K, N, 2);
+        final double[][] ref = reference(A, B, M, N, K);
+
+        final File aFile = File.createTempFile("matrixA", ".bin");
+        final File bFile = File.createTempFile("matrixB", ".bin");
+        final File cFile = File.createTempFile("matrixC", ".bin");
+        aFile.deleteOnExit();
+        bFile.deleteOnExit();
+        cFile.deleteOnExit();
+
+        OutOfCoreMatrixMultiply.writeMatrix(aFile.toPath(), A, M, K);
+        OutOfCoreMatrixMultiply.writeMatrix(bFile.toPath(), B, K, N);
+        if (rowTile > 0) {
+            OutOfCoreMatrixMultiply.parMatrixMultiply(aFile.toPath(), bFile.toPath(), cFile.toPath(), M, N, K,
+                    rowTile, kTile);
+        } else {
+            OutOfCoreMatrixMultiply.parMatrixMultiply(aFile.toPath(), bFile.toPath(), cFile.toPath(), M, N, K,
+                    64L * 1024L);
+        }
+        final double[][] C = OutOfCoreMatrixMultiply.readMatrix(cFile.toPath(), M, N);
+
+        for (int i = 0; i < M; i++) {
+            for (int j = 0; j < N; j++) {
+                String msg = "Error detected on cell (" + i + ", " + j + ")";
+                assertEquals(msg, ref[i][j], C[i][j], 1e-9);
+            }
+        }
+    }
+
+    public void testExplicitTiles() throws IOException {
+        outOfCoreTestHelper(53, 47, 61, 8, 16);
+        outOfCoreTestHelper(53, 47, 61, 53, 61);
+        outOfCoreTestHelper(10, 10, 10, 3, 1);
+    }
+
+    public void testMemoryBudget() throws IOException {
+        outOfCoreTestHelper(200, 150, 120, 0, 0);
+    }
+
+    public void testBudgetBelowOneRow() throws IOException {
+        final File aFile = File.createTempFile("matrixA", ".bin");
+        final File bFile = File.createTempFile("matrixB", ".bin");
+        final File cFile = File.createTempFile("matrixC", ".bin");
+        aFile.deleteOnExit();
+        bFile.deleteOnExit();
+        cFile.deleteOnExit();
+
+        // One row each of A, B and C needs (120 + 2 * 150) * 8 bytes
+        try {
+            OutOfCoreMatrixMultiply.parMatrixMultiply(aFile.toPath(), bFile.toPath(), cFile.toPath(), 200, 150,
+                    120, 420L * 8L - 1L);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
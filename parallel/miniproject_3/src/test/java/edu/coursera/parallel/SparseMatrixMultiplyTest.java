@@ -0,0 +1,125 @@
+package edu.coursera.parallel;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class SparseMatrixMultiplyTest extends TestCase {
+
+    /**
+     * Create a rows x cols matrix where roughly density of the cells hold a
+     * small random integer and the rest are zero.
+     */
+    private double[][] createSparseDense(final int rows, final int cols,
+            final double density, final long seed) {
+        final double[][] input = new double[rows][cols];
+        final Random rand = new Random(seed);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (rand.nextDouble() < density) {
+                    input[i][j] = 1 + rand.nextInt(100);
+                }
+            }
+        }
+        return input;
+    }
+
+    /**
+     * A dense reference multiply of a RxK matrix by a KxM matrix.
+     */
+    private double[][] denseMultiply(final double[][] A, final double[][] B,
+            final int R, final int K, final int M) {
+        final double[][] C = new double[R][M];
+        for (int i = 0; i < R; i++) {
+            for (int j = 0; j < M; j++) {
+                double sum = 0.0;
+                for (int k = 0; k < K; k++) {
+                    sum += A[i][k] * B[k][j];
+                }
+                C[i][j] = sum;
+            }
+        }
+        return C;
+    }
+
+    private void checkResult(final double[][] ref, final double[][] output,
+            final int R, final int M) {
+        for (int i = 0; i < R; i++) {
+            for (int j = 0; j < M; j++) {
+                String msg = "Error detected on cell (" + i + ", " + j + ")";
+                assertEquals(msg, ref[i][j], output[i][j]);
+            }
+        }
+    }
+
+    public void testRoundTripAndTranspose() {
+        final double[][] dense = createSparseDense(37, 23, 0.1, 1);
+        final SparseMatrix sparse = SparseMatrix.fromDense(dense, 37, 23);
+        checkResult(dense, sparse.toDense(), 37, 23);
+
+        final double[][] transposed = sparse.transpose().toDense();
+        for (int i = 0; i < 37; i++) {
+            for (int j = 0; j < 23; j++) {
+                assertEquals(dense[i][j], transposed[j][i]);
+            }
+        }
+    }
+
+    public void testSpMV() {
+        final int R = 300;
+        final int K = 200;
+        final double[][] dense = createSparseDense(R, K, 0.02, 2);
+        final double[][] x = createSparseDense(K, 1, 1.0, 3);
+        final double[][] ref = denseMultiply(dense, x, R, K, 1);
+
+        final double[] xVec = new double[K];
+        for (int k = 0; k < K; k++) {
+            xVec[k] = x[k][0];
+        }
+        final double[] y = new double[R];
+        SparseMatrixMultiply.parSpMV(SparseMatrix.fromDense(dense, R, K), xVec,
+                y);
+        for (int i = 0; i < R; i++) {
+            assertEquals("Error detected on row " + i, ref[i][0], y[i]);
+        }
+    }
+
+    public void testSparseDense() {
+        final int R = 150;
+        final int K = 120;
+        final int M = 90;
+        final double[][] A = createSparseDense(R, K, 0.03, 4);
+        final double[][] B = createSparseDense(K, M, 1.0, 5);
+        final double[][] ref = denseMultiply(A, B, R, K, M);
+
+        final double[][] C = createSparseDense(R, M, 1.0, 6);
+        SparseMatrixMultiply.parSparseDenseMultiply(
+                SparseMatrix.fromDense(A, R, K), B, C, M);
+        checkResult(ref, C, R, M);
+    }
+
+    public void testSparseSparse() {
+        final int R = 211;
+        final int K = 173;
+        final int M = 157;
+        final double[][] A = createSparseDense(R, K, 0.02, 7);
+        final double[][] B = createSparseDense(K, M, 0.02, 8);
+        final double[][] ref = denseMultiply(A, B, R, K, M);
+
+        final SparseMatrix C = SparseMatrixMultiply.parSparseSparseMultiply(
+                SparseMatrix.fromDense(A, R, K), SparseMatrix.fromDense(B, K, M));
+        assertEquals(R, C.getRows());
+        assertEquals(M, C.getCols());
+        checkResult(ref, C.toDense(), R, M);
+
+        final int[] rowPtr = C.getRowPtr();
+        final int[] colIdx = C.getColIdx();
+        for (int i = 0; i < R; i++) {
+            for (int p = rowPtr[i] + 1; p < rowPtr[i + 1]; p++) {
+                assertTrue("Columns of row " + i + " are not sorted",
+                        colIdx[p - 1] < colIdx[p]);
+            }
+        }
+    }
+}
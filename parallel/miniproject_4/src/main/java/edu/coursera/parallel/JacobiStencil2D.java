@@ -0,0 +1,233 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * A reusable engine for Jacobi iteration of a star stencil on a 2-D grid. The
+ * interior of the grid is split into blockRows x blockCols blocks, one task
+ * each. Like {@link OneDimAveragingPhaser#runParallelFuzzyBarrier}, every
+ * block signals its own phaser after each sweep and waits only for its face
+ * neighbours (at most four) rather than for the whole grid.
+ *
+ * Grids are (ny + 2) x (nx + 2) arrays indexed [y][x]; the outer ring holds
+ * fixed boundary values and is never written. Close the engine to stop its
+ * workers.
+ */
+public final class JacobiStencil2D implements AutoCloseable {
+
+    /**
+     * Number of blocks along y.
+     */
+    private final int blockRows;
+
+    /**
+     * Number of blocks along x.
+     */
+    private final int blockCols;
+
+    /**
+     * Stencil applied at every interior point.
+     */
+    private final StencilWeights weights;
+
+    /**
+     * Parked workers, one per block.
+     */
+    private final PhaserWorkerPool pool;
+
+    /**
+     * One phaser per block, indexed by by * blockCols + bx.
+     */
+    private final Phaser[] ph;
+
+    /**
+     * Create an engine and start its workers.
+     *
+     * @param setBlockRows Number of blocks along y
+     * @param setBlockCols Number of blocks along x
+     * @param setWeights A 2-D stencil
+     */
+    public JacobiStencil2D(final int setBlockRows, final int setBlockCols,
+            final StencilWeights setWeights) {
+        if (setBlockRows <= 0 || setBlockCols <= 0) {
+            throw new IllegalArgumentException("Block counts must be positive, "
+                    + "blockRows=" + setBlockRows + ", blockCols="
+                    + setBlockCols);
+        }
+        if (setWeights.getDimensions() != 2) {
+            throw new IllegalArgumentException("Expected a 2-D stencil, got "
+                    + setWeights.getDimensions() + "-D");
+        }
+        this.blockRows = setBlockRows;
+        this.blockCols = setBlockCols;
+        this.weights = setWeights;
+        this.pool = new PhaserWorkerPool(setBlockRows * setBlockCols);
+        this.ph = new Phaser[setBlockRows * setBlockCols];
+        for (int b = 0; b < ph.length; b++) {
+            ph[b] = new Phaser(1);
+        }
+    }
+
+    /**
+     * Getter for the number of tasks.
+     *
+     * @return The number of blocks, each run by one task
+     */
+    public int getTaskCount() {
+        return ph.length;
+    }
+
+    /**
+     * Sequential Jacobi iteration, used as the reference for the engine. Like
+     * {@link OneDimAveragingPhaser#runSequential}, the two arrays alternate as
+     * input and output, so after an even number of iterations the result is
+     * in myVal and otherwise in myNew.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A grid that starts as the output grid
+     * @param myVal A grid that contains the initial input
+     * @param ny Number of interior rows
+     * @param nx Number of interior columns
+     * @param weights A 2-D stencil
+     */
+    public static void runSequential(final int iterations,
+            final double[][] myNew, final double[][] myVal, final int ny,
+            final int nx, final StencilWeights weights) {
+        double[][] next = myNew;
+        double[][] curr = myVal;
+
+        for (int iter = 0; iter < iterations; iter++) {
+            sweep(curr, next, 1, ny, 1, nx, weights);
+            double[][] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+    }
+
+    /**
+     * Parallel Jacobi iteration with point-to-point synchronization between
+     * face-adjacent blocks. Leaves both grids exactly as
+     * {@link #runSequential} would.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A grid that starts as the output grid
+     * @param myVal A grid that contains the initial input
+     * @param ny Number of interior rows
+     * @param nx Number of interior columns
+     */
+    public void run(final int iterations, final double[][] myNew,
+            final double[][] myVal, final int ny, final int nx) {
+        pool.invoke((b) -> {
+            blockTask(b, iterations, myNew, myVal, ny, nx);
+        }, this::abort, this::recover);
+    }
+
+    /**
+     * Stop the engine's workers.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Release every block waiting on a neighbour, after one block of a run
+     * has failed.
+     */
+    private void abort() {
+        for (Phaser p : ph) {
+            p.forceTermination();
+        }
+    }
+
+    /**
+     * Replace the phasers abort has terminated, once all blocks of the
+     * failed run have returned.
+     */
+    private void recover() {
+        for (int b = 0; b < ph.length; b++) {
+            ph[b] = new Phaser(1);
+        }
+    }
+
+    /**
+     * The work of block b.
+     *
+     * @param b Index of the block, by * blockCols + bx
+     * @param iterations The number of iterations to run
+     * @param myNew A grid that starts as the output grid
+     * @param myVal A grid that contains the initial input
+     * @param ny Number of interior rows
+     * @param nx Number of interior columns
+     */
+    private void blockTask(final int b, final int iterations,
+            final double[][] myNew, final double[][] myVal, final int ny,
+            final int nx) {
+        final int by = b / blockCols;
+        final int bx = b % blockCols;
+        final Partition yPart = Partition.balanced(ny, blockRows);
+        final int y0 = yPart.getLeft(by);
+        final int y1 = yPart.getRight(by);
+        final Partition xPart = Partition.balanced(nx, blockCols);
+        final int x0 = xPart.getLeft(bx);
+        final int x1 = xPart.getRight(bx);
+
+        double[][] next = myNew;
+        double[][] curr = myVal;
+
+        for (int iter = 0; iter < iterations; iter++) {
+            sweep(curr, next, y0, y1, x0, x1, weights);
+
+            int arrivedPhase = ph[b].arrive();
+            if (by > 0) {
+                ph[b - blockCols].awaitAdvance(arrivedPhase);
+            }
+            if (by < blockRows - 1) {
+                ph[b + blockCols].awaitAdvance(arrivedPhase);
+            }
+            if (bx > 0) {
+                ph[b - 1].awaitAdvance(arrivedPhase);
+            }
+            if (bx < blockCols - 1) {
+                ph[b + 1].awaitAdvance(arrivedPhase);
+            }
+
+            double[][] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+    }
+
+    /**
+     * Apply the stencil to rows y0..y1 and columns x0..x1 (inclusive) of
+     * curr, writing the results to next.
+     *
+     * @param curr Input grid
+     * @param next Output grid
+     * @param y0 First row
+     * @param y1 Last row
+     * @param x0 First column
+     * @param x1 Last column
+     * @param weights A 2-D stencil
+     */
+    private static void sweep(final double[][] curr, final double[][] next,
+            final int y0, final int y1, final int x0, final int x1,
+            final StencilWeights weights) {
+        final double wc = weights.getCenter();
+        final double wn = weights.getLower(0);
+        final double ws = weights.getUpper(0);
+        final double ww = weights.getLower(1);
+        final double we = weights.getUpper(1);
+
+        for (int y = y0; y <= y1; y++) {
+            final double[] up = curr[y - 1];
+            final double[] row = curr[y];
+            final double[] down = curr[y + 1];
+            final double[] out = next[y];
+            for (int x = x0; x <= x1; x++) {
+                out[x] = wc * row[x] + wn * up[x] + ws * down[x]
+                    + ww * row[x - 1] + we * row[x + 1];
+            }
+        }
+    }
+}
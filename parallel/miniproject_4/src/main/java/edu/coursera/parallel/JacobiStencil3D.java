@@ -0,0 +1,269 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * A reusable engine for Jacobi iteration of a star stencil on a 3-D grid. The
+ * interior of the grid is split into blockDepth x blockRows x blockCols
+ * blocks, one task each. Every block signals its own phaser after each sweep
+ * and waits only for its face neighbours (at most six), as
+ * {@link JacobiStencil2D} does in two dimensions.
+ *
+ * Grids are (nz + 2) x (ny + 2) x (nx + 2) arrays indexed [z][y][x]; the
+ * outer shell holds fixed boundary values and is never written. Close the
+ * engine to stop its workers.
+ */
+public final class JacobiStencil3D implements AutoCloseable {
+
+    /**
+     * Number of blocks along z.
+     */
+    private final int blockDepth;
+
+    /**
+     * Number of blocks along y.
+     */
+    private final int blockRows;
+
+    /**
+     * Number of blocks along x.
+     */
+    private final int blockCols;
+
+    /**
+     * Stencil applied at every interior point.
+     */
+    private final StencilWeights weights;
+
+    /**
+     * Parked workers, one per block.
+     */
+    private final PhaserWorkerPool pool;
+
+    /**
+     * One phaser per block, indexed (bz * blockRows + by) * blockCols + bx.
+     */
+    private final Phaser[] ph;
+
+    /**
+     * Create an engine and start its workers.
+     *
+     * @param setBlockDepth Number of blocks along z
+     * @param setBlockRows Number of blocks along y
+     * @param setBlockCols Number of blocks along x
+     * @param setWeights A 3-D stencil
+     */
+    public JacobiStencil3D(final int setBlockDepth, final int setBlockRows,
+            final int setBlockCols, final StencilWeights setWeights) {
+        if (setBlockDepth <= 0 || setBlockRows <= 0 || setBlockCols <= 0) {
+            throw new IllegalArgumentException("Block counts must be positive, "
+                    + "blockDepth=" + setBlockDepth + ", blockRows="
+                    + setBlockRows + ", blockCols=" + setBlockCols);
+        }
+        if (setWeights.getDimensions() != 3) {
+            throw new IllegalArgumentException("Expected a 3-D stencil, got "
+                    + setWeights.getDimensions() + "-D");
+        }
+        this.blockDepth = setBlockDepth;
+        this.blockRows = setBlockRows;
+        this.blockCols = setBlockCols;
+        this.weights = setWeights;
+        final int blocks = setBlockDepth * setBlockRows * setBlockCols;
+        this.pool = new PhaserWorkerPool(blocks);
+        this.ph = new Phaser[blocks];
+        for (int b = 0; b < blocks; b++) {
+            ph[b] = new Phaser(1);
+        }
+    }
+
+    /**
+     * Getter for the number of tasks.
+     *
+     * @return The number of blocks, each run by one task
+     */
+    public int getTaskCount() {
+        return ph.length;
+    }
+
+    /**
+     * Sequential Jacobi iteration, used as the reference for the engine. The
+     * two arrays alternate as input and output, so after an even number of
+     * iterations the result is in myVal and otherwise in myNew.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A grid that starts as the output grid
+     * @param myVal A grid that contains the initial input
+     * @param nz Number of interior planes
+     * @param ny Number of interior rows
+     * @param nx Number of interior columns
+     * @param weights A 3-D stencil
+     */
+    public static void runSequential(final int iterations,
+            final double[][][] myNew, final double[][][] myVal, final int nz,
+            final int ny, final int nx, final StencilWeights weights) {
+        double[][][] next = myNew;
+        double[][][] curr = myVal;
+
+        for (int iter = 0; iter < iterations; iter++) {
+            sweep(curr, next, 1, nz, 1, ny, 1, nx, weights);
+            double[][][] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+    }
+
+    /**
+     * Parallel Jacobi iteration with point-to-point synchronization between
+     * face-adjacent blocks. Leaves both grids exactly as
+     * {@link #runSequential} would.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A grid that starts as the output grid
+     * @param myVal A grid that contains the initial input
+     * @param nz Number of interior planes
+     * @param ny Number of interior rows
+     * @param nx Number of interior columns
+     */
+    public void run(final int iterations, final double[][][] myNew,
+            final double[][][] myVal, final int nz, final int ny,
+            final int nx) {
+        pool.invoke((b) -> {
+            blockTask(b, iterations, myNew, myVal, nz, ny, nx);
+        }, this::abort, this::recover);
+    }
+
+    /**
+     * Stop the engine's workers.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Release every block waiting on a neighbour, after one block of a run
+     * has failed.
+     */
+    private void abort() {
+        for (Phaser p : ph) {
+            p.forceTermination();
+        }
+    }
+
+    /**
+     * Replace the phasers abort has terminated, once all blocks of the
+     * failed run have returned.
+     */
+    private void recover() {
+        for (int b = 0; b < ph.length; b++) {
+            ph[b] = new Phaser(1);
+        }
+    }
+
+    /**
+     * The work of block b.
+     *
+     * @param b Index of the block, (bz * blockRows + by) * blockCols + bx
+     * @param iterations The number of iterations to run
+     * @param myNew A grid that starts as the output grid
+     * @param myVal A grid that contains the initial input
+     * @param nz Number of interior planes
+     * @param ny Number of interior rows
+     * @param nx Number of interior columns
+     */
+    private void blockTask(final int b, final int iterations,
+            final double[][][] myNew, final double[][][] myVal, final int nz,
+            final int ny, final int nx) {
+        final int planeBlocks = blockRows * blockCols;
+        final int bz = b / planeBlocks;
+        final int by = (b % planeBlocks) / blockCols;
+        final int bx = b % blockCols;
+        final Partition zPart = Partition.balanced(nz, blockDepth);
+        final int z0 = zPart.getLeft(bz);
+        final int z1 = zPart.getRight(bz);
+        final Partition yPart = Partition.balanced(ny, blockRows);
+        final int y0 = yPart.getLeft(by);
+        final int y1 = yPart.getRight(by);
+        final Partition xPart = Partition.balanced(nx, blockCols);
+        final int x0 = xPart.getLeft(bx);
+        final int x1 = xPart.getRight(bx);
+
+        double[][][] next = myNew;
+        double[][][] curr = myVal;
+
+        for (int iter = 0; iter < iterations; iter++) {
+            sweep(curr, next, z0, z1, y0, y1, x0, x1, weights);
+
+            int arrivedPhase = ph[b].arrive();
+            if (bz > 0) {
+                ph[b - planeBlocks].awaitAdvance(arrivedPhase);
+            }
+            if (bz < blockDepth - 1) {
+                ph[b + planeBlocks].awaitAdvance(arrivedPhase);
+            }
+            if (by > 0) {
+                ph[b - blockCols].awaitAdvance(arrivedPhase);
+            }
+            if (by < blockRows - 1) {
+                ph[b + blockCols].awaitAdvance(arrivedPhase);
+            }
+            if (bx > 0) {
+                ph[b - 1].awaitAdvance(arrivedPhase);
+            }
+            if (bx < blockCols - 1) {
+                ph[b + 1].awaitAdvance(arrivedPhase);
+            }
+
+            double[][][] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+    }
+
+    /**
+     * Apply the stencil to planes z0..z1, rows y0..y1 and columns x0..x1
+     * (inclusive) of curr, writing the results to next.
+     *
+     * @param curr Input grid
+     * @param next Output grid
+     * @param z0 First plane
+     * @param z1 Last plane
+     * @param y0 First row
+     * @param y1 Last row
+     * @param x0 First column
+     * @param x1 Last column
+     * @param weights A 3-D stencil
+     */
+    private static void sweep(final double[][][] curr,
+            final double[][][] next, final int z0, final int z1, final int y0,
+            final int y1, final int x0, final int x1,
+            final StencilWeights weights) {
+        final double wc = weights.getCenter();
+        final double wb = weights.getLower(0);
+        final double wa = weights.getUpper(0);
+        final double wn = weights.getLower(1);
+        final double ws = weights.getUpper(1);
+        final double ww = weights.getLower(2);
+        final double we = weights.getUpper(2);
+
+        for (int z = z0; z <= z1; z++) {
+            final double[][] below = curr[z - 1];
+            final double[][] plane = curr[z];
+            final double[][] above = curr[z + 1];
+            final double[][] outPlane = next[z];
+            for (int y = y0; y <= y1; y++) {
+                final double[] rowBelow = below[y];
+                final double[] rowAbove = above[y];
+                final double[] up = plane[y - 1];
+                final double[] row = plane[y];
+                final double[] down = plane[y + 1];
+                final double[] out = outPlane[y];
+                for (int x = x0; x <= x1; x++) {
+                    out[x] = wc * row[x] + wb * rowBelow[x] + wa * rowAbove[x]
+                        + wn * up[x] + ws * down[x]
+                        + ww * row[x - 1] + we * row[x + 1];
+                }
+            }
+        }
+    }
+}
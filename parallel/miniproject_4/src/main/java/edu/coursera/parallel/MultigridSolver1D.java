@@ -0,0 +1,497 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * A parallel geometric multigrid solver for the one-dimensional Poisson
+ * problem -u'' = f on a uniform grid, the problem whose homogeneous case
+ * iterative averaging solves. Plain Jacobi needs O(n^2) iterations to
+ * converge, while each V-cycle here reduces the residual by roughly a
+ * constant factor independent of n.
+ *
+ * Arrays have n + 2 elements: u[0] and u[n + 1] are fixed boundary values
+ * and elements 1..n are the unknowns, on a grid of spacing h = 1 / (n + 1).
+ * A grid of n unknowns is coarsened to the m = n / 2 (rounded down) unknowns
+ * at its even points, down to at most COARSEST unknowns, where the remaining
+ * problem is solved directly. For odd n this is the usual coarsening with
+ * spacing 2h. For even n the last coarse point is the last fine unknown, so
+ * the coarse grid ends with an interval shorter than its spacing. Each level
+ * records the length of that last interval; interpolation onto the last
+ * fine unknown is linear in the actual distances, restriction is its
+ * transpose, and the coarse operator is their Galerkin product, which only
+ * changes the diagonal of the last row.
+ *
+ * A V-cycle runs as a single job on the engine's persistent workers. Every
+ * stage (weighted-Jacobi smoothing sweep, residual, full-weighting
+ * restriction, linear prolongation) splits the current level with
+ * {@link Partition} and ends at a barrier shared by all tasks. Close the
+ * solver to stop its workers.
+ */
+public final class MultigridSolver1D implements AutoCloseable {
+
+    /**
+     * Damping factor of the weighted-Jacobi smoother, the value that best
+     * damps high-frequency error in one dimension.
+     */
+    static final double OMEGA = 2.0 / 3.0;
+
+    /**
+     * Smoothing sweeps before and after each coarse-grid correction. Even, so
+     * that the smoothed values always end in the level's u array.
+     */
+    static final int SWEEPS = 2;
+
+    /**
+     * Levels with at most this many unknowns are solved directly.
+     */
+    static final int COARSEST = 3;
+
+    /**
+     * The number of tasks each cycle is split into.
+     */
+    private final int taskCnt;
+
+    /**
+     * Parked workers, one per task.
+     */
+    private final PhaserWorkerPool pool;
+
+    /**
+     * Barrier with every task registered, ending each stage of a cycle.
+     * Replaced after a failed cycle.
+     */
+    private Phaser barrier;
+
+    /**
+     * Create a solver and start its workers.
+     *
+     * @param setTaskCnt The number of threads/tasks to use for every cycle
+     */
+    public MultigridSolver1D(final int setTaskCnt) {
+        this.taskCnt = setTaskCnt;
+        this.pool = new PhaserWorkerPool(setTaskCnt);
+        this.barrier = newBarrier(setTaskCnt);
+    }
+
+    /**
+     * Getter for the number of tasks.
+     *
+     * @return The number of threads/tasks used by every cycle
+     */
+    public int getTaskCount() {
+        return taskCnt;
+    }
+
+    /**
+     * Improve u with V-cycles until the largest residual |f - A u| is at most
+     * tolerance times its initial value, or maxCycles cycles have run.
+     *
+     * @param u Initial guess including boundary values, updated in place
+     * @param f Right-hand side, indexed 1..n
+     * @param n The number of unknowns
+     * @param tolerance Required reduction of the residual
+     * @param maxCycles The largest number of V-cycles to run
+     * @return The number of V-cycles run
+     */
+    public int solve(final double[] u, final double[] f, final int n,
+            final double tolerance, final int maxCycles) {
+        final Level[] levels = buildLevels(u, f, n);
+        final double[] partial = new double[taskCnt];
+
+        pool.invoke((i) -> {
+            partial[i] = residualMax(i, levels[0]);
+        });
+        final double target = tolerance * max(partial);
+
+        int cycles = 0;
+        while (cycles < maxCycles && max(partial) > target) {
+            pool.invoke((i) -> {
+                cycleTask(i, levels);
+                partial[i] = residualMax(i, levels[0]);
+            }, this::abort, this::recover);
+            cycles++;
+        }
+        return cycles;
+    }
+
+    /**
+     * Sequential largest residual |f - A u| over the unknowns, where
+     * (A u)[j] = (2 u[j] - u[j - 1] - u[j + 1]) / h^2.
+     *
+     * @param u Solution including boundary values
+     * @param f Right-hand side, indexed 1..n
+     * @param n The number of unknowns
+     * @return The largest absolute residual
+     */
+    public static double residualNorm(final double[] u, final double[] f,
+            final int n) {
+        final double invH2 = (n + 1.0) * (n + 1.0);
+        double max = 0.0;
+        for (int j = 1; j <= n; j++) {
+            final double r = f[j]
+                - (2.0 * u[j] - u[j - 1] - u[j + 1]) * invH2;
+            max = Math.max(max, Math.abs(r));
+        }
+        return max;
+    }
+
+    /**
+     * Stop the solver's workers.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * One V-cycle as seen by task i. Every task runs the same sequence of
+     * stages and barriers.
+     *
+     * @param i Index of this task
+     * @param levels Grid hierarchy, finest first
+     */
+    private void cycleTask(final int i, final Level[] levels) {
+        final int coarsest = levels.length - 1;
+
+        for (int l = 0; l < coarsest; l++) {
+            final Level fine = levels[l];
+            smooth(i, fine);
+            residual(i, fine);
+            barrier.arriveAndAwaitAdvance();
+            restrict(i, fine, levels[l + 1]);
+            barrier.arriveAndAwaitAdvance();
+        }
+
+        if (i == 0) {
+            solveDirect(levels[coarsest]);
+        }
+        barrier.arriveAndAwaitAdvance();
+
+        for (int l = coarsest - 1; l >= 0; l--) {
+            prolong(i, levels[l + 1], levels[l]);
+            barrier.arriveAndAwaitAdvance();
+            smooth(i, levels[l]);
+        }
+    }
+
+    /**
+     * Diagonal of row j of a level's operator, scaled by h^2.
+     *
+     * @param level The level
+     * @param j Index of an unknown of the level
+     * @return 2, or the level's last diagonal for j = n
+     */
+    private static double diagonal(final Level level, final int j) {
+        return j == level.n ? level.last : 2.0;
+    }
+
+    /**
+     * Run SWEEPS weighted-Jacobi sweeps on task i's chunk of a level,
+     * alternating between u and tmp, each followed by a barrier.
+     *
+     * @param i Index of this task
+     * @param level The level to smooth
+     */
+    private void smooth(final int i, final Level level) {
+        final int left = level.partition.getLeft(i);
+        final int right = level.partition.getRight(i);
+        double[] src = level.u;
+        double[] dst = level.tmp;
+
+        for (int s = 0; s < SWEEPS; s++) {
+            for (int j = left; j <= right; j++) {
+                final double jacobi = (src[j - 1] + src[j + 1]
+                        + level.h2 * level.f[j]) / diagonal(level, j);
+                dst[j] = (1.0 - OMEGA) * src[j] + OMEGA * jacobi;
+            }
+            barrier.arriveAndAwaitAdvance();
+
+            double[] temp = dst;
+            dst = src;
+            src = temp;
+        }
+    }
+
+    /**
+     * Compute r = f - A u on task i's chunk of a level.
+     *
+     * @param i Index of this task
+     * @param level The level
+     */
+    private static void residual(final int i, final Level level) {
+        final double[] u = level.u;
+        final double invH2 = 1.0 / level.h2;
+        for (int j = level.partition.getLeft(i);
+                j <= level.partition.getRight(i); j++) {
+            level.r[j] = level.f[j]
+                - (diagonal(level, j) * u[j] - u[j - 1] - u[j + 1]) * invH2;
+        }
+    }
+
+    /**
+     * Largest absolute residual on task i's chunk of a level.
+     *
+     * @param i Index of this task
+     * @param level The level
+     * @return The largest absolute residual of the chunk
+     */
+    private static double residualMax(final int i, final Level level) {
+        final double[] u = level.u;
+        final double invH2 = 1.0 / level.h2;
+        double max = 0.0;
+        for (int j = level.partition.getLeft(i);
+                j <= level.partition.getRight(i); j++) {
+            final double r = level.f[j]
+                - (diagonal(level, j) * u[j] - u[j - 1] - u[j + 1]) * invH2;
+            max = Math.max(max, Math.abs(r));
+        }
+        return max;
+    }
+
+    /**
+     * Full-weighting restriction of the fine residual onto task i's chunk of
+     * the coarse right-hand side, zeroing the coarse correction: the
+     * transpose of prolong, halved. When the fine level has an even number
+     * of unknowns, the last coarse point is the last fine unknown and has no
+     * fine point to its right; r[n + 1] is always zero, so the same weights
+     * drop that neighbour.
+     *
+     * @param i Index of this task
+     * @param fine The fine level, whose residual is current
+     * @param coarse The next coarser level
+     */
+    private static void restrict(final int i, final Level fine,
+            final Level coarse) {
+        final double[] r = fine.r;
+        for (int jc = coarse.partition.getLeft(i);
+                jc <= coarse.partition.getRight(i); jc++) {
+            final int j = 2 * jc;
+            final double right = (j + 1 == fine.n)
+                ? 2.0 * fine.lastWeight() : 1.0;
+            coarse.f[jc] = (r[j - 1] + 2.0 * r[j] + right * r[j + 1]) / 4.0;
+            coarse.u[jc] = 0.0;
+        }
+    }
+
+    /**
+     * Add the linear interpolation of the coarse correction to task i's
+     * chunk of the fine solution. The correction is zero on the boundary.
+     * On an odd-sized level the last fine unknown lies between the last
+     * coarse point and the boundary, at the distances lastWeight gives; on
+     * an even-sized level it is a coarse point itself.
+     *
+     * @param i Index of this task
+     * @param coarse The coarser level, holding the correction
+     * @param fine The level to correct
+     */
+    private static void prolong(final int i, final Level coarse,
+            final Level fine) {
+        final double[] e = coarse.u;
+        for (int j = fine.partition.getLeft(i);
+                j <= fine.partition.getRight(i); j++) {
+            if (j % 2 == 0) {
+                fine.u[j] += e[j / 2];
+            } else if (j == fine.n) {
+                fine.u[j] += fine.lastWeight() * e[j / 2];
+            } else {
+                fine.u[j] += (e[j / 2] + e[j / 2 + 1]) / 2.0;
+            }
+        }
+    }
+
+    /**
+     * Solve A u = f exactly on a level with the Thomas algorithm for
+     * tridiagonal systems, using u[0] and u[n + 1] as boundary values.
+     *
+     * @param level The level to solve
+     */
+    private static void solveDirect(final Level level) {
+        final int n = level.n;
+        final double[] u = level.u;
+        final double[] c = level.tmp;
+        final double[] d = level.r;
+
+        // Forward elimination of d_j u[j] - u[j - 1] - u[j + 1] = h^2 f[j]
+        double denom = diagonal(level, 1);
+        c[1] = -1.0 / denom;
+        d[1] = (level.h2 * level.f[1] + u[0]) / denom;
+        for (int j = 2; j <= n; j++) {
+            denom = diagonal(level, j) + c[j - 1];
+            c[j] = -1.0 / denom;
+            d[j] = (level.h2 * level.f[j] + d[j - 1]) / denom;
+        }
+        d[n] += u[n + 1] / denom;
+
+        u[n] = d[n];
+        for (int j = n - 1; j >= 1; j--) {
+            u[j] = d[j] - c[j] * u[j + 1];
+        }
+    }
+
+    /**
+     * Build the grid hierarchy for a problem, finest level first.
+     *
+     * @param u Solution of the finest level
+     * @param f Right-hand side of the finest level
+     * @param n The number of unknowns of the finest level
+     * @return The levels
+     */
+    private Level[] buildLevels(final double[] u, final double[] f,
+            final int n) {
+        int count = 1;
+        for (int m = n; m > COARSEST; m /= 2) {
+            count++;
+        }
+
+        final Level[] levels = new Level[count];
+        final double[] tmp = new double[n + 2];
+        tmp[0] = u[0];
+        tmp[n + 1] = u[n + 1];
+        levels[0] = new Level(n, 1.0 / ((n + 1.0) * (n + 1.0)), 1.0, u, tmp,
+                f, taskCnt);
+        for (int l = 1; l < count; l++) {
+            final Level fine = levels[l - 1];
+            final int m = fine.n / 2;
+            // Distance from the last coarse point, fine point 2m, to the
+            // boundary, in units of the coarse spacing
+            final double gap = (fine.n % 2 == 1)
+                ? (1.0 + fine.gap) / 2.0
+                : fine.gap / 2.0;
+            levels[l] = new Level(m, 4.0 * fine.h2, gap, new double[m + 2],
+                    new double[m + 2], new double[m + 2], taskCnt);
+        }
+        return levels;
+    }
+
+    /**
+     * Release every task waiting at the barrier, after one task of a cycle
+     * has failed.
+     */
+    private void abort() {
+        barrier.forceTermination();
+    }
+
+    /**
+     * Replace the barrier abort has terminated, once all tasks of the failed
+     * cycle have returned.
+     */
+    private void recover() {
+        barrier = newBarrier(taskCnt);
+    }
+
+    /**
+     * Create a barrier with every task registered.
+     *
+     * @param parties The number of tasks
+     * @return The barrier
+     */
+    private static Phaser newBarrier(final int parties) {
+        final Phaser ph = new Phaser(0);
+        ph.bulkRegister(parties);
+        return ph;
+    }
+
+    /**
+     * Largest element of an array.
+     *
+     * @param values Non-negative values
+     * @return Their maximum, or zero
+     */
+    private static double max(final double[] values) {
+        double max = 0.0;
+        for (double v : values) {
+            max = Math.max(max, v);
+        }
+        return max;
+    }
+
+    /**
+     * Arrays of one grid level.
+     */
+    private static final class Level {
+
+        /**
+         * The number of unknowns.
+         */
+        private final int n;
+
+        /**
+         * Square of the grid spacing.
+         */
+        private final double h2;
+
+        /**
+         * Distance from the last unknown to the boundary, in units of the
+         * grid spacing: 1 where the grid is uniform up to the boundary.
+         */
+        private final double gap;
+
+        /**
+         * Diagonal of the last row of the operator, scaled by h^2: the
+         * non-uniform second difference 1 + 1 / gap, 2 for a uniform grid.
+         */
+        private final double last;
+
+        /**
+         * Solution, or correction on coarse levels, with boundary values.
+         */
+        private final double[] u;
+
+        /**
+         * Second smoothing buffer, with the same boundary values as u.
+         */
+        private final double[] tmp;
+
+        /**
+         * Right-hand side.
+         */
+        private final double[] f;
+
+        /**
+         * Residual.
+         */
+        private final double[] r;
+
+        /**
+         * Chunk of unknowns owned by each task.
+         */
+        private final Partition partition;
+
+        /**
+         * Constructor.
+         *
+         * @param setN The number of unknowns
+         * @param setH2 Square of the grid spacing
+         * @param setGap Distance from the last unknown to the boundary, in
+         *        units of the grid spacing
+         * @param setU Solution array
+         * @param setTmp Second smoothing buffer
+         * @param setF Right-hand side
+         * @param taskCnt The number of tasks sharing the level
+         */
+        Level(final int setN, final double setH2, final double setGap,
+                final double[] setU, final double[] setTmp,
+                final double[] setF, final int taskCnt) {
+            this.n = setN;
+            this.h2 = setH2;
+            this.gap = setGap;
+            this.last = 1.0 + 1.0 / setGap;
+            this.u = setU;
+            this.tmp = setTmp;
+            this.f = setF;
+            this.r = new double[setN + 2];
+            this.partition = Partition.balanced(setN, taskCnt);
+        }
+
+        /**
+         * Weight of the last coarse point in the interpolation onto the last
+         * unknown of this level, when n is odd: that unknown is 1 spacing
+         * from the coarse point and gap from the boundary.
+         *
+         * @return gap / (1 + gap), 1/2 for a uniform grid
+         */
+        double lastWeight() {
+            return gap / (1.0 + gap);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package edu.coursera.parallel;
+
+/**
+ * Point-to-point synchronization between neighbouring tasks of a
+ * one-dimensional chain, as used by the fuzzy barrier: after each iteration
+ * task i arrives, then waits until tasks i - 1 and i + 1 have arrived at the
+ * same iteration. Only waits on the immediate neighbours are supported.
+ *
+ * Two implementations are provided for benchmarking against each other: one
+ * Phaser per task, and spin-then-park on padded volatile counters.
+ */
+public interface NeighbourSync {
+
+    /**
+     * One Phaser per task, the original fuzzy barrier.
+     *
+     * @param taskCnt The number of tasks in the chain
+     * @return A new synchronizer
+     */
+    static NeighbourSync phaser(final int taskCnt) {
+        return new PhaserNeighbourSync(taskCnt);
+    }
+
+    /**
+     * Padded per-task iteration counters; waiters spin briefly with
+     * Thread.onSpinWait before parking.
+     *
+     * @param taskCnt The number of tasks in the chain
+     * @return A new synchronizer
+     */
+    static NeighbourSync spinThenPark(final int taskCnt) {
+        return new SpinParkNeighbourSync(taskCnt,
+                SpinParkNeighbourSync.DEFAULT_SPINS);
+    }
+
+    /**
+     * Getter for the number of tasks.
+     *
+     * @return The number of tasks in the chain
+     */
+    int getTaskCount();
+
+    /**
+     * Signal that task i has finished its current iteration, without
+     * blocking.
+     *
+     * @param i Index of the arriving task
+     * @return The arrival number, to pass to awaitNeighbour
+     */
+    int arrive(int i);
+
+    /**
+     * Arrival number the next arrive(i) will return. Every task's count
+     * starts equal, and stays equal between runs that arrive the same number
+     * of times on every task, so a task that has to wait before its first
+     * arrival of a run reads its starting point here.
+     *
+     * @param i Index of the task
+     * @return The arrival number of task i's next arrival
+     */
+    int nextArrival(int i);
+
+    /**
+     * Block task i until its neighbour j has made the arrival numbered
+     * arrived, i.e. the one matching task i's own arrival.
+     *
+     * @param i Index of the waiting task
+     * @param j Index of the neighbour, i - 1 or i + 1
+     * @param arrived Arrival number returned by arrive(i)
+     */
+    void awaitNeighbour(int i, int j, int arrived);
+
+    /**
+     * Make every current and later awaitNeighbour return at once, to let the
+     * other tasks finish after one of them has failed.
+     */
+    void terminate();
+
+    /**
+     * Return to the initial state, with no arrivals. Only called while no
+     * task uses this synchronizer, for example after terminate.
+     */
+    void reset();
+}
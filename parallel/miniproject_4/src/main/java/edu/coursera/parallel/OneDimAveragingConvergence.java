@@ -0,0 +1,320 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * One-dimensional iterative averaging that runs until the solution stops
+ * changing instead of for a fixed number of iterations. Every checkInterval
+ * iterations the sweep also measures its residual, the change it made to the
+ * solution, and the run stops once that residual is at most the tolerance.
+ *
+ * The arrays alternate as input and output exactly as in
+ * {@link OneDimAveragingPhaser#runSequential}, so after an even number of
+ * iterations the result is in myVal and otherwise in myNew.
+ */
+public final class OneDimAveragingConvergence {
+
+    /**
+     * Default constructor.
+     */
+    private OneDimAveragingConvergence() {
+    }
+
+    /**
+     * Sequential reference for {@link #runParallel}.
+     *
+     * @param maxIterations The largest number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param n The size of this problem
+     * @param tolerance Stop once a checked sweep's residual is at most this
+     * @param norm How the residual is measured
+     * @param checkInterval Measure the residual every this many iterations
+     * @return The number of iterations actually run
+     */
+    public static int runSequential(final int maxIterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final double tolerance, final ResidualNorm norm,
+            final int checkInterval) {
+        checkInterval(checkInterval);
+        double[] next = myNew;
+        double[] curr = myVal;
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            if ((iter + 1) % checkInterval == 0) {
+                final double partial = sweepWithResidual(curr, next, 1, n,
+                        norm);
+                if (finish(partial, norm) <= tolerance) {
+                    return iter + 1;
+                }
+            } else {
+                sweep(curr, next, 1, n);
+            }
+            double[] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+        return maxIterations;
+    }
+
+    /**
+     * Parallel implementation with one task per chunk. Between checks tasks
+     * synchronize only with their neighbours, as in
+     * {@link OneDimAveragingPhaser#runParallelFuzzyBarrier}. On a checked
+     * iteration every task stores its chunk's partial residual and arrives on
+     * a shared phaser; the last task to arrive combines the partials in
+     * Phaser.onAdvance and publishes the decision, so the reduction costs one
+     * barrier and no extra pass over the data.
+     *
+     * @param maxIterations The largest number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param n The size of this problem
+     * @param taskCnt The number of threads/tasks to use to compute the solution
+     * @param tolerance Stop once a checked sweep's residual is at most this
+     * @param norm How the residual is measured
+     * @param checkInterval Measure the residual every this many iterations
+     * @return The number of iterations actually run
+     */
+    public static int runParallel(final int maxIterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int taskCnt, final double tolerance, final ResidualNorm norm,
+            final int checkInterval) {
+        checkInterval(checkInterval);
+        final NeighbourSync sync = NeighbourSync.phaser(taskCnt);
+        final Partition partition = Partition.balanced(n, taskCnt);
+        final ResidualReducer reducer = new ResidualReducer(taskCnt,
+                tolerance, norm);
+
+        OneDimAveragingPhaser.runTasks(taskCnt, (i) -> {
+            convergenceTask(i, maxIterations, myNew, myVal, partition,
+                    checkInterval, sync, reducer);
+        });
+
+        final int checks = reducer.getConvergedPhase();
+        return checks < 0 ? maxIterations : (checks + 1) * checkInterval;
+    }
+
+    /**
+     * The work of task i in {@link #runParallel}.
+     *
+     * @param i Index of this task
+     * @param maxIterations The largest number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input
+     * @param partition Chunk of elements updated by each task
+     * @param checkInterval Measure the residual every this many iterations
+     * @param sync Neighbour synchronization with one slot per task
+     * @param reducer Residual reduction shared by all tasks
+     */
+    private static void convergenceTask(final int i, final int maxIterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final int checkInterval,
+            final NeighbourSync sync, final ResidualReducer reducer) {
+        final int taskCnt = partition.getParts();
+        final int left = partition.getLeft(i);
+        final int right = partition.getRight(i);
+        final ResidualNorm norm = reducer.getNorm();
+
+        double[] next = myNew;
+        double[] curr = myVal;
+
+        for (int iter = 0; iter < maxIterations; iter++) {
+            if ((iter + 1) % checkInterval == 0) {
+                reducer.setPartial(i, sweepWithResidual(curr, next, left,
+                        right, norm));
+                /*
+                 * The reduction barrier orders this sweep before every
+                 * neighbour's next one, so only keep this task's neighbour
+                 * arrivals in step here.
+                 */
+                sync.arrive(i);
+                reducer.arriveAndAwaitAdvance();
+                if (reducer.isConverged()) {
+                    return;
+                }
+            } else {
+                sweep(curr, next, left, right);
+                final int arrived = sync.arrive(i);
+                if (0 <= i - 1) {
+                    sync.awaitNeighbour(i, i - 1, arrived);
+                }
+                if (taskCnt > i + 1) {
+                    sync.awaitNeighbour(i, i + 1, arrived);
+                }
+            }
+
+            double[] tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+    }
+
+    /**
+     * Average elements left..right (inclusive) of curr into next.
+     *
+     * @param curr Input array
+     * @param next Output array
+     * @param left First element to update
+     * @param right Last element to update
+     */
+    private static void sweep(final double[] curr, final double[] next,
+            final int left, final int right) {
+        for (int j = left; j <= right; j++) {
+            next[j] = (curr[j - 1] + curr[j + 1]) / 2.0;
+        }
+    }
+
+    /**
+     * Average elements left..right (inclusive) of curr into next and measure
+     * the change made.
+     *
+     * @param curr Input array
+     * @param next Output array
+     * @param left First element to update
+     * @param right Last element to update
+     * @param norm How the residual is measured
+     * @return The partial residual of the range: the largest absolute change
+     * for MAX, the sum of squared changes for L2
+     */
+    private static double sweepWithResidual(final double[] curr,
+            final double[] next, final int left, final int right,
+            final ResidualNorm norm) {
+        double partial = 0.0;
+        if (norm == ResidualNorm.MAX) {
+            for (int j = left; j <= right; j++) {
+                final double v = (curr[j - 1] + curr[j + 1]) / 2.0;
+                partial = Math.max(partial, Math.abs(v - curr[j]));
+                next[j] = v;
+            }
+        } else {
+            for (int j = left; j <= right; j++) {
+                final double v = (curr[j - 1] + curr[j + 1]) / 2.0;
+                final double d = v - curr[j];
+                partial += d * d;
+                next[j] = v;
+            }
+        }
+        return partial;
+    }
+
+    /**
+     * Turn a combined partial residual into the residual itself.
+     *
+     * @param partial Combined partial residual, see sweepWithResidual
+     * @param norm How the residual is measured
+     * @return The residual
+     */
+    private static double finish(final double partial,
+            final ResidualNorm norm) {
+        return norm == ResidualNorm.MAX ? partial : Math.sqrt(partial);
+    }
+
+    /**
+     * Validate a check interval.
+     *
+     * @param checkInterval Measure the residual every this many iterations
+     */
+    private static void checkInterval(final int checkInterval) {
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException("checkInterval must be "
+                    + "positive, was " + checkInterval);
+        }
+    }
+
+    /**
+     * A barrier over all tasks that combines their partial residuals when it
+     * advances. onAdvance runs in the last task to arrive, before any task is
+     * released, so every task reads the same decision.
+     */
+    private static final class ResidualReducer extends Phaser {
+
+        /**
+         * Partial residual of each task, written before it arrives.
+         */
+        private final double[] partials;
+
+        /**
+         * Stop once the combined residual is at most this.
+         */
+        private final double tolerance;
+
+        /**
+         * How the residual is measured.
+         */
+        private final ResidualNorm norm;
+
+        /**
+         * Phase at which the residual met the tolerance, or -1.
+         */
+        private volatile int convergedPhase = -1;
+
+        /**
+         * Constructor.
+         *
+         * @param taskCnt The number of tasks taking part
+         * @param setTolerance Stop once the residual is at most this
+         * @param setNorm How the residual is measured
+         */
+        ResidualReducer(final int taskCnt, final double setTolerance,
+                final ResidualNorm setNorm) {
+            super(taskCnt);
+            this.partials = new double[taskCnt];
+            this.tolerance = setTolerance;
+            this.norm = setNorm;
+        }
+
+        @Override
+        protected boolean onAdvance(final int phase,
+                final int registeredParties) {
+            double combined = 0.0;
+            for (double p : partials) {
+                combined = norm == ResidualNorm.MAX ? Math.max(combined, p)
+                    : combined + p;
+            }
+            if (finish(combined, norm) <= tolerance) {
+                convergedPhase = phase;
+            }
+            return false;
+        }
+
+        /**
+         * Store the partial residual of task i.
+         *
+         * @param i Index of the task
+         * @param partial Its partial residual
+         */
+        void setPartial(final int i, final double partial) {
+            partials[i] = partial;
+        }
+
+        /**
+         * Getter for the norm.
+         *
+         * @return How the residual is measured
+         */
+        ResidualNorm getNorm() {
+            return norm;
+        }
+
+        /**
+         * Whether the last completed check met the tolerance.
+         *
+         * @return True once the run should stop
+         */
+        boolean isConverged() {
+            return convergedPhase >= 0;
+        }
+
+        /**
+         * Getter for the phase that met the tolerance.
+         *
+         * @return The number of checks before the converged one, or -1
+         */
+        int getConvergedPhase() {
+            return convergedPhase;
+        }
+    }
+}
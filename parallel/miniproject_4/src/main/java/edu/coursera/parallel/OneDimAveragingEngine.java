@@ -0,0 +1,271 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * A reusable engine for one-dimensional iterative averaging. It runs the same
+ * per-task work as {@link OneDimAveragingPhaser}, but keeps its worker threads
+ * and phasers alive between calls, so a solver that runs many short averaging
+ * passes pays for thread creation once. Close the engine to stop its workers.
+ *
+ * Calls on one engine are serialized; each call uses every worker.
+ */
+public final class OneDimAveragingEngine implements AutoCloseable {
+
+    /**
+     * The number of tasks each call is split into.
+     */
+    private final int taskCnt;
+
+    /**
+     * Parked workers, one per task.
+     */
+    private final PhaserWorkerPool pool;
+
+    /**
+     * Barrier with every task registered, reused by runParallelBarrier and
+     * replaced after a failed call.
+     */
+    private Phaser barrier;
+
+    /**
+     * Neighbour synchronization, reused by runParallelFuzzyBarrier and
+     * runParallelTemporalBlocking.
+     */
+    private final NeighbourSync neighbours;
+
+    /**
+     * Problem size the temporal-blocking state below was built for, or -1
+     * before the first runParallelTemporalBlocking.
+     */
+    private int cachedN = -1;
+
+    /**
+     * Requested iterations per block the temporal-blocking state was built
+     * for.
+     */
+    private int cachedBlockIters;
+
+    /**
+     * Partition used by runParallelTemporalBlocking.
+     */
+    private Partition blockPartition;
+
+    /**
+     * Ghost width used by runParallelTemporalBlocking.
+     */
+    private int blockWidth;
+
+    /**
+     * Halo buffers of runParallelTemporalBlocking, refilled on every call.
+     */
+    private double[][][] halo;
+
+    /**
+     * Private per-task buffers of runParallelTemporalBlocking.
+     */
+    private double[][][] blockBuffers;
+
+    /**
+     * Create an engine whose neighbour synchronization uses phasers, and
+     * start its workers.
+     *
+     * @param setTaskCnt The number of threads/tasks to use for every call
+     */
+    public OneDimAveragingEngine(final int setTaskCnt) {
+        this(setTaskCnt, NeighbourSync.phaser(setTaskCnt));
+    }
+
+    /**
+     * Create an engine with the given neighbour synchronization and start
+     * its workers.
+     *
+     * @param setTaskCnt The number of threads/tasks to use for every call
+     * @param setNeighbours Neighbour synchronization with setTaskCnt slots
+     */
+    public OneDimAveragingEngine(final int setTaskCnt,
+            final NeighbourSync setNeighbours) {
+        if (setNeighbours.getTaskCount() != setTaskCnt) {
+            throw new IllegalArgumentException("Expected a synchronizer for "
+                    + setTaskCnt + " tasks, got "
+                    + setNeighbours.getTaskCount());
+        }
+        this.taskCnt = setTaskCnt;
+        this.pool = new PhaserWorkerPool(setTaskCnt);
+        this.barrier = newBarrier(setTaskCnt);
+        this.neighbours = setNeighbours;
+    }
+
+    /**
+     * Getter for the number of tasks.
+     *
+     * @return The number of threads/tasks used by every call
+     */
+    public int getTaskCount() {
+        return taskCnt;
+    }
+
+    /**
+     * Same computation as {@link OneDimAveragingPhaser#runParallelBarrier},
+     * run on the engine's workers.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param n The size of this problem
+     */
+    public void runParallelBarrier(final int iterations, final double[] myNew,
+            final double[] myVal, final int n) {
+        runParallelBarrier(iterations, myNew, myVal,
+                Partition.balanced(n, taskCnt));
+    }
+
+    /**
+     * {@link #runParallelBarrier(int, double[], double[], int)} with an
+     * explicit split of the elements, for example a cost-weighted one.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n for each of the engine's tasks
+     */
+    public void runParallelBarrier(final int iterations, final double[] myNew,
+            final double[] myVal, final Partition partition) {
+        checkParts(partition);
+        pool.invoke((i) -> {
+            OneDimAveragingPhaser.barrierTask(i, iterations, myNew, myVal,
+                    partition, barrier, null);
+        }, this::abort, this::recover);
+    }
+
+    /**
+     * Same computation as {@link OneDimAveragingPhaser#runParallelFuzzyBarrier},
+     * run on the engine's workers.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param n The size of this problem
+     */
+    public void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal, final int n) {
+        runParallelFuzzyBarrier(iterations, myNew, myVal,
+                Partition.balanced(n, taskCnt));
+    }
+
+    /**
+     * {@link #runParallelFuzzyBarrier(int, double[], double[], int)} with an
+     * explicit split of the elements, for example a cost-weighted one.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n for each of the engine's tasks
+     */
+    public void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition) {
+        checkParts(partition);
+        pool.invoke((i) -> {
+            OneDimAveragingPhaser.fuzzyTask(i, iterations, myNew, myVal,
+                    partition, neighbours, null);
+        }, this::abort, this::recover);
+    }
+
+    /**
+     * Same computation as
+     * {@link OneDimAveragingPhaser#runParallelTemporalBlocking}, run on the
+     * engine's workers. The partition and the halo and private buffers are
+     * kept for the next call with the same n and blockIters, which only
+     * refills the halos from myVal.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param n The size of this problem
+     * @param blockIters Iterations per synchronization
+     */
+    public synchronized void runParallelTemporalBlocking(
+            final int iterations, final double[] myNew, final double[] myVal,
+            final int n, final int blockIters) {
+        if (n != cachedN || blockIters != cachedBlockIters) {
+            final Partition partition = Partition.balanced(n, taskCnt);
+            final int width = OneDimAveragingPhaser.temporalBlockWidth(
+                    partition, blockIters);
+            halo = OneDimAveragingPhaser.createHalos(myVal, partition, width);
+            blockBuffers = OneDimAveragingPhaser.createBlockBuffers(partition,
+                    width);
+            blockPartition = partition;
+            blockWidth = width;
+            cachedN = n;
+            cachedBlockIters = blockIters;
+        } else {
+            OneDimAveragingPhaser.fillHalos(myVal, blockPartition, blockWidth,
+                    halo);
+        }
+
+        final Partition partition = blockPartition;
+        final int width = blockWidth;
+        final double[][][] currHalo = halo;
+        final double[][][] buffers = blockBuffers;
+        pool.invoke((i) -> {
+            OneDimAveragingPhaser.temporalBlockTask(i, iterations, myNew,
+                    myVal, partition, width, currHalo, buffers, neighbours);
+        }, this::abort, this::recover);
+    }
+
+    /**
+     * Stop the engine's workers.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Release every task waiting on the engine's synchronizers, after one
+     * task of a call has failed.
+     */
+    private void abort() {
+        barrier.forceTermination();
+        neighbours.terminate();
+    }
+
+    /**
+     * Replace the synchronizers abort has released, once all tasks of the
+     * failed call have returned.
+     */
+    private void recover() {
+        barrier = newBarrier(taskCnt);
+        neighbours.reset();
+    }
+
+    /**
+     * Create a barrier with every task registered.
+     *
+     * @param parties The number of tasks
+     * @return The barrier
+     */
+    private static Phaser newBarrier(final int parties) {
+        final Phaser ph = new Phaser(0);
+        ph.bulkRegister(parties);
+        return ph;
+    }
+
+    /**
+     * Check that a partition has one chunk per task of this engine.
+     *
+     * @param partition The partition to check
+     */
+    private void checkParts(final Partition partition) {
+        if (partition.getParts() != taskCnt) {
+            throw new IllegalArgumentException("Expected a partition into "
+                    + taskCnt + " chunks, got " + partition.getParts());
+        }
+    }
+}
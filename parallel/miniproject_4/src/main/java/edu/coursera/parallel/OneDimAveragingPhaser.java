@@ -1,6 +1,7 @@
 package edu.coursera.parallel;
 
 import java.util.concurrent.Phaser;
+import java.util.function.IntConsumer;
 
 /**
  * Wrapper class for implementing one-dimensional iterative averaging using
@@ -52,47 +53,76 @@ public final class OneDimAveragingPhaser {
     public static void runParallelBarrier(final int iterations,
             final double[] myNew, final double[] myVal, final int n,
             final int taskCnt) {
-        Phaser ph = new Phaser(0);
-        ph.bulkRegister(taskCnt);
-
-        Thread[] threads = new Thread[taskCnt];
-
-        for (int ii = 0; ii < taskCnt; ii++) {
-            final int i = ii;
-
-            threads[ii] = new Thread(() -> {
-                double[] threadPrivateMyVal = myVal;
-                double[] threadPrivateMyNew = myNew;
+        runParallelBarrier(iterations, myNew, myVal,
+                Partition.balanced(n, taskCnt));
+    }
 
-                final int chunkSize = (n + taskCnt - 1) / taskCnt;
-                final int left = (i * chunkSize) + 1;
-                int right = (left + chunkSize) - 1;
-                if (right > n) {
-                    right = n;
-                }
+    /**
+     * {@link #runParallelBarrier(int, double[], double[], int, int)} with an
+     * explicit split of the elements, for example a cost-weighted one.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n updated by each task
+     */
+    public static void runParallelBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition) {
+        runParallelBarrier(iterations, myNew, myVal, partition, null);
+    }
 
-                for (int iter = 0; iter < iterations; iter++) {
-                    for (int j = left; j <= right; j++) {
-                        threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
-                                + threadPrivateMyVal[j + 1]) / 2.0;
-                    }
-                    ph.arriveAndAwaitAdvance();
+    /**
+     * {@link #runParallelBarrier(int, double[], double[], Partition)}
+     * recording per-task compute time, barrier wait time and iteration skew.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n updated by each task
+     * @param instrumentation Where to record timings, or null for none
+     */
+    public static void runParallelBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition,
+            final StencilInstrumentation instrumentation) {
+        runParallelBarrier(iterations, myNew, myVal, partition,
+                new TieredBarrier(partition.getParts(), partition.getParts()),
+                instrumentation);
+    }
 
-                    double[] temp = threadPrivateMyNew;
-                    threadPrivateMyNew = threadPrivateMyVal;
-                    threadPrivateMyVal = temp;
-                }
-            });
-            threads[ii].start();
+    /**
+     * {@link #runParallelBarrier(int, double[], double[], Partition,
+     * StencilInstrumentation)} with a choice of global barrier, for example a
+     * tree of tiered phasers when there are too many tasks for one phaser to
+     * absorb their arrivals.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n updated by each task
+     * @param barrier Global barrier with one slot per chunk
+     * @param instrumentation Where to record timings, or null for none
+     */
+    public static void runParallelBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final TieredBarrier barrier,
+            final StencilInstrumentation instrumentation) {
+        if (barrier.getTaskCount() != partition.getParts()) {
+            throw new IllegalArgumentException("Barrier for "
+                    + barrier.getTaskCount() + " tasks, partition into "
+                    + partition.getParts() + " chunks");
         }
-
-        for (int ii = 0; ii < taskCnt; ii++) {
-            try {
-                threads[ii].join();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        if (instrumentation != null) {
+            instrumentation.begin(partition.getParts(), iterations);
         }
+        runTasks(partition.getParts(), (i) -> {
+            barrierTask(i, iterations, myNew, myVal, partition,
+                    barrier.forTask(i), instrumentation);
+        });
     }
 
     /**
@@ -100,9 +130,6 @@ public final class OneDimAveragingPhaser {
      * uses the Phaser.arrive and Phaser.awaitAdvance APIs to overlap
      * computation with barrier completion.
      *
-     * TODO Complete this method based on the provided runSequential and
-     * runParallelBarrier methods.
-     *
      * @param iterations The number of iterations to run
      * @param myNew A double array that starts as the output array
      * @param myVal A double array that contains the initial input to the
@@ -113,58 +140,121 @@ public final class OneDimAveragingPhaser {
     public static void runParallelFuzzyBarrier(final int iterations,
             final double[] myNew, final double[] myVal, final int n,
             final int taskCnt) {
-        
-        Phaser[] ph = new Phaser[taskCnt];
-        for (int i = 0; i < ph.length; i++) {
-            ph[i] = new Phaser(1);
+        runParallelFuzzyBarrier(iterations, myNew, myVal,
+                Partition.balanced(n, taskCnt));
+    }
+
+    /**
+     * {@link #runParallelFuzzyBarrier(int, double[], double[], int, int)}
+     * with an explicit split of the elements, for example a cost-weighted
+     * one.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n updated by each task
+     */
+    public static void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition) {
+        runParallelFuzzyBarrier(iterations, myNew, myVal, partition,
+                NeighbourSync.phaser(partition.getParts()));
+    }
+
+    /**
+     * {@link #runParallelFuzzyBarrier(int, double[], double[], Partition)}
+     * with a choice of neighbour synchronization, for example
+     * {@link NeighbourSync#spinThenPark} when chunks are so short that
+     * parking and unparking every iteration dominates.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n updated by each task
+     * @param sync Neighbour synchronization with one slot per chunk
+     */
+    public static void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final NeighbourSync sync) {
+        runParallelFuzzyBarrier(iterations, myNew, myVal, partition, sync,
+                null);
+    }
+
+    /**
+     * {@link #runParallelFuzzyBarrier(int, double[], double[], Partition,
+     * NeighbourSync)} recording per-task compute time, neighbour wait time
+     * and iteration skew.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements 1..n updated by each task
+     * @param sync Neighbour synchronization with one slot per chunk
+     * @param instrumentation Where to record timings, or null for none
+     */
+    public static void runParallelFuzzyBarrier(final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final NeighbourSync sync,
+            final StencilInstrumentation instrumentation) {
+        if (instrumentation != null) {
+            instrumentation.begin(partition.getParts(), iterations);
         }
-        
+        runTasks(partition.getParts(), (i) -> {
+            fuzzyTask(i, iterations, myNew, myVal, partition, sync,
+                    instrumentation);
+        });
+    }
+
+    /**
+     * A temporally blocked parallel implementation of one-dimensional
+     * iterative averaging. Each task advances its chunk blockIters iterations
+     * at a time in private buffers extended by blockIters ghost cells on each
+     * side, recomputing the shrinking ghost region redundantly, and then
+     * synchronizes once with its neighbours. Ghost cells are exchanged
+     * through small per-task halo buffers, so the shared arrays are only
+     * written by their owning task. Both arrays end up exactly as
+     * {@link #runSequential} leaves them.
+     *
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param n The size of this problem
+     * @param taskCnt The number of threads/tasks to use to compute the solution
+     * @param blockIters Iterations per synchronization, clamped to the
+     * smallest chunk size
+     */
+    public static void runParallelTemporalBlocking(final int iterations,
+            final double[] myNew, final double[] myVal, final int n,
+            final int taskCnt, final int blockIters) {
+        final NeighbourSync sync = NeighbourSync.phaser(taskCnt);
+        final Partition partition = Partition.balanced(n, taskCnt);
+        final int width = temporalBlockWidth(partition, blockIters);
+        final double[][][] halo = createHalos(myVal, partition, width);
+        final double[][][] buffers = createBlockBuffers(partition, width);
+
+        runTasks(taskCnt, (i) -> {
+            temporalBlockTask(i, iterations, myNew, myVal, partition, width,
+                    halo, buffers, sync);
+        });
+    }
+
+    /**
+     * Start one fresh thread per task, run body on each and wait for all of
+     * them to finish.
+     *
+     * @param taskCnt The number of threads/tasks to start
+     * @param body The work of each task, given its index
+     */
+    static void runTasks(final int taskCnt, final IntConsumer body) {
         Thread[] threads = new Thread[taskCnt];
 
         for (int ii = 0; ii < taskCnt; ii++) {
             final int i = ii;
-
-            threads[ii] = new Thread(() -> {
-                double[] threadPrivateMyVal = myVal;
-                double[] threadPrivateMyNew = myNew;
-
-                for (int iter = 0; iter < iterations; iter++) {
-
-                    // Due to split (fuzzy) paradigm computational logic
-                    // can be simplified replacing "chunk" calc overhead
-                    final int left = i * (n / taskCnt) + 1;
-                    final int right = (i + 1) * (n / taskCnt);
-
-//                    final int chunkSize = (n + taskCnt - 1) / taskCnt;
-//                    final int left = (i * chunkSize) + 1;
-//                    int right = (left + chunkSize) - 1;
-//                    if (right > n) {
-//                        right = n;
-//                    }
-
-                    for (int j = left; j <= right; j++) {
-                        threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
-                                + threadPrivateMyVal[j + 1]) / 2.0;
-                    }
-                    
-                    
-                    // Notify adjacent threads they can proceed because this
-                    // thread has "arrived" at the related phase.
-                    // Refer to http://blog.bytecode.tech/java-phasers-made-simple/
-                    // "This is called Phasers with split-phase barrier or fuzzy barrier"
-                    int arrivedPhase = ph[i].arrive();
-                    if (0 <= i-1) {
-                        ph[i-1].awaitAdvance(arrivedPhase);
-                    }
-                    if (taskCnt > i+1) {
-                        ph[i+1].awaitAdvance(arrivedPhase);
-                    }
-
-                    double[] temp = threadPrivateMyNew;
-                    threadPrivateMyNew = threadPrivateMyVal;
-                    threadPrivateMyVal = temp;
-                }
-            });
+            threads[ii] = new Thread(() -> body.accept(i));
             threads[ii].start();
         }
 
@@ -175,6 +265,287 @@ public final class OneDimAveragingPhaser {
                 e.printStackTrace();
             }
         }
+    }
+
+    /**
+     * The work of task i in {@link #runParallelBarrier}: update one chunk per
+     * iteration, then wait for every task on the shared phaser.
+     *
+     * @param i Index of this task
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements updated by each task
+     * @param ph Phaser of a global barrier over every task, to pass with
+     * arriveAndAwaitAdvance
+     * @param instrumentation Where to record timings, or null for none
+     */
+    static void barrierTask(final int i, final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final Phaser ph,
+            final StencilInstrumentation instrumentation) {
+        double[] threadPrivateMyVal = myVal;
+        double[] threadPrivateMyNew = myNew;
+
+        final int left = partition.getLeft(i);
+        final int right = partition.getRight(i);
+        long computeStart = instrumentation == null ? 0L
+            : instrumentation.taskStarted(i);
+
+        for (int iter = 0; iter < iterations; iter++) {
+            for (int j = left; j <= right; j++) {
+                threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
+                        + threadPrivateMyVal[j + 1]) / 2.0;
+            }
+            final long arrived = instrumentation == null ? 0L
+                : System.nanoTime();
+            ph.arriveAndAwaitAdvance();
+            if (instrumentation != null) {
+                final long released = System.nanoTime();
+                instrumentation.iteration(i, iter, computeStart, arrived,
+                        released);
+                computeStart = released;
+            }
+
+            double[] temp = threadPrivateMyNew;
+            threadPrivateMyNew = threadPrivateMyVal;
+            threadPrivateMyVal = temp;
+        }
+    }
+
+    /**
+     * The work of task i in {@link #runParallelFuzzyBarrier}: update one
+     * chunk per iteration, then wait only for the neighbouring tasks.
+     *
+     * @param i Index of this task
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements updated by each task
+     * @param sync Neighbour synchronization with one slot per task
+     * @param instrumentation Where to record timings, or null for none
+     */
+    static void fuzzyTask(final int i, final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final NeighbourSync sync,
+            final StencilInstrumentation instrumentation) {
+        double[] threadPrivateMyVal = myVal;
+        double[] threadPrivateMyNew = myNew;
+
+        final int taskCnt = partition.getParts();
+        final int left = partition.getLeft(i);
+        final int right = partition.getRight(i);
+        long computeStart = instrumentation == null ? 0L
+            : instrumentation.taskStarted(i);
+
+        for (int iter = 0; iter < iterations; iter++) {
+            for (int j = left; j <= right; j++) {
+                threadPrivateMyNew[j] = (threadPrivateMyVal[j - 1]
+                        + threadPrivateMyVal[j + 1]) / 2.0;
+            }
+
+            // Notify adjacent threads they can proceed because this
+            // thread has "arrived" at the related phase.
+            // Refer to http://blog.bytecode.tech/java-phasers-made-simple/
+            // "This is called Phasers with split-phase barrier or fuzzy barrier"
+            final long arrived = instrumentation == null ? 0L
+                : System.nanoTime();
+            int arrivedPhase = sync.arrive(i);
+            if (0 <= i-1) {
+                sync.awaitNeighbour(i, i-1, arrivedPhase);
+            }
+            if (taskCnt > i+1) {
+                sync.awaitNeighbour(i, i+1, arrivedPhase);
+            }
+            if (instrumentation != null) {
+                final long released = System.nanoTime();
+                instrumentation.iteration(i, iter, computeStart, arrived,
+                        released);
+                computeStart = released;
+            }
+
+            double[] temp = threadPrivateMyNew;
+            threadPrivateMyNew = threadPrivateMyVal;
+            threadPrivateMyVal = temp;
+        }
+    }
+
+    /**
+     * Number of iterations per block actually used by the temporally blocked
+     * mode: blockIters clamped so that every ghost region lies within the
+     * immediate neighbour's chunk.
+     *
+     * @param partition Chunk of elements updated by each task
+     * @param blockIters The requested iterations per block
+     * @return The ghost width and block length to use
+     */
+    static int temporalBlockWidth(final Partition partition,
+            final int blockIters) {
+        final int minSize = partition.getMinSize();
+        if (minSize == 0) {
+            throw new IllegalArgumentException("Temporal blocking needs at "
+                    + "least one element per task, n=" + partition.getN()
+                    + ", taskCnt=" + partition.getParts());
+        }
+        return Math.max(1, Math.min(blockIters, minSize));
+    }
+
+    /**
+     * Allocate the double-buffered halos of the temporally blocked mode and
+     * fill the first buffer with the initial boundary cells of every chunk.
+     * halo[p][i] holds the leftmost width cells of chunk i followed by its
+     * rightmost width cells.
+     *
+     * @param myVal The initial input to the iterative averaging problem
+     * @param partition Chunk of elements updated by each task
+     * @param width Ghost width, from temporalBlockWidth
+     * @return The halo buffers
+     */
+    static double[][][] createHalos(final double[] myVal,
+            final Partition partition, final int width) {
+        final double[][][] halo =
+            new double[2][partition.getParts()][2 * width];
+        fillHalos(myVal, partition, width, halo);
+        return halo;
+    }
+
+    /**
+     * Copy the initial boundary cells of every chunk into the first buffer
+     * of halos created by createHalos, so that they can be reused for
+     * another run with the same partition and width.
+     *
+     * @param myVal The initial input to the iterative averaging problem
+     * @param partition Chunk of elements updated by each task
+     * @param width Ghost width, from temporalBlockWidth
+     * @param halo The halo buffers to fill
+     */
+    static void fillHalos(final double[] myVal, final Partition partition,
+            final int width, final double[][][] halo) {
+        for (int i = 0; i < partition.getParts(); i++) {
+            final int left = partition.getLeft(i);
+            final int right = partition.getRight(i);
+            System.arraycopy(myVal, left, halo[0][i], 0, width);
+            System.arraycopy(myVal, right - width + 1, halo[0][i], width,
+                    width);
+        }
+    }
 
+    /**
+     * Allocate the private buffers of the temporally blocked mode:
+     * buffers[i] holds the two buffers task i swaps between, each its chunk
+     * plus width ghost cells on either side.
+     *
+     * @param partition Chunk of elements updated by each task
+     * @param width Ghost width, from temporalBlockWidth
+     * @return The per-task buffers
+     */
+    static double[][][] createBlockBuffers(final Partition partition,
+            final int width) {
+        final int taskCnt = partition.getParts();
+        final double[][][] buffers = new double[taskCnt][][];
+        for (int i = 0; i < taskCnt; i++) {
+            final int len = partition.getRight(i) - partition.getLeft(i) + 1;
+            buffers[i] = new double[2][len + 2 * width];
+        }
+        return buffers;
+    }
+
+    /**
+     * The work of task i in {@link #runParallelTemporalBlocking}.
+     *
+     * @param i Index of this task
+     * @param iterations The number of iterations to run
+     * @param myNew A double array that starts as the output array
+     * @param myVal A double array that contains the initial input to the
+     * iterative averaging problem
+     * @param partition Chunk of elements updated by each task
+     * @param width Ghost width and iterations per block
+     * @param halo Halo buffers, from createHalos
+     * @param buffers Private buffers, from createBlockBuffers
+     * @param sync Neighbour synchronization with one slot per task
+     */
+    static void temporalBlockTask(final int i, final int iterations,
+            final double[] myNew, final double[] myVal,
+            final Partition partition, final int width,
+            final double[][][] halo, final double[][][] buffers,
+            final NeighbourSync sync) {
+        final int n = partition.getN();
+        final int taskCnt = partition.getParts();
+        final int left = partition.getLeft(i);
+        final int right = partition.getRight(i);
+        final int len = right - left + 1;
+        // Global index of position 0 in the private buffers
+        final int origin = left - width;
+        double[] src = buffers[i][0];
+        double[] dst = buffers[i][1];
+
+        int level = 0;
+        int block = 0;
+        while (level < iterations) {
+            final int steps = Math.min(width, iterations - level);
+            final double[] curr = (level % 2 == 0) ? myVal : myNew;
+
+            // Load this chunk and steps ghost cells on each side at level
+            System.arraycopy(curr, left, src, left - origin, len);
+            if (i > 0) {
+                final double[] leftHalo = halo[block % 2][i - 1];
+                for (int g = left - steps; g < left; g++) {
+                    src[g - origin] = leftHalo[g - left + 2 * width];
+                }
+            }
+            if (i < taskCnt - 1) {
+                final double[] rightHalo = halo[block % 2][i + 1];
+                for (int g = right + 1; g <= right + steps; g++) {
+                    src[g - origin] = rightHalo[g - right - 1];
+                }
+            }
+
+            for (int k = 1; k <= steps; k++) {
+                final int inLevel = level + k - 1;
+                final double[] boundary = (inLevel % 2 == 0) ? myVal : myNew;
+                if (i == 0) {
+                    src[-origin] = boundary[0];
+                }
+                if (i == taskCnt - 1) {
+                    src[n + 1 - origin] = boundary[n + 1];
+                }
+
+                final int lo = Math.max(1, left - steps + k);
+                final int hi = Math.min(n, right + steps - k);
+                for (int g = lo; g <= hi; g++) {
+                    dst[g - origin] = (src[g - 1 - origin]
+                            + src[g + 1 - origin]) / 2.0;
+                }
+
+                // Keep the last two levels in the shared arrays
+                if (k >= steps - 1) {
+                    final int outLevel = level + k;
+                    System.arraycopy(dst, left - origin,
+                            (outLevel % 2 == 0) ? myVal : myNew, left, len);
+                }
+
+                double[] temp = dst;
+                dst = src;
+                src = temp;
+            }
+
+            final double[] myHalo = halo[(block + 1) % 2][i];
+            System.arraycopy(src, left - origin, myHalo, 0, width);
+            System.arraycopy(src, right - width + 1 - origin, myHalo, width,
+                    width);
+
+            level += steps;
+            block++;
+
+            int arrivedPhase = sync.arrive(i);
+            if (0 <= i - 1) {
+                sync.awaitNeighbour(i, i - 1, arrivedPhase);
+            }
+            if (taskCnt > i + 1) {
+                sync.awaitNeighbour(i, i + 1, arrivedPhase);
+            }
+        }
     }
 }
@@ -0,0 +1,159 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * Gauss-Seidel iteration for the one-dimensional averaging problem of
+ * {@link OneDimAveragingPhaser}. Each point is replaced by the average of its
+ * neighbours in place, so a single array x of n + 2 elements is used, x[0]
+ * and x[n + 1] holding the fixed boundary values, and new values are used as
+ * soon as they are available, which roughly halves the iterations Jacobi
+ * needs to converge.
+ *
+ * Two orderings are provided, each with a sequential reference that the
+ * parallel version reproduces exactly: lexicographic order, parallelized as a
+ * pipelined wavefront, and red-black order, parallelized with a barrier
+ * between the two half-sweeps.
+ */
+public final class OneDimGaussSeidel {
+
+    /**
+     * Default constructor.
+     */
+    private OneDimGaussSeidel() {
+    }
+
+    /**
+     * Sequential lexicographic Gauss-Seidel: every sweep updates x[1] to x[n]
+     * in order.
+     *
+     * @param iterations The number of sweeps to run
+     * @param x The solution, updated in place
+     * @param n The size of this problem
+     */
+    public static void runSequential(final int iterations, final double[] x,
+            final int n) {
+        for (int iter = 0; iter < iterations; iter++) {
+            sweep(x, 1, n, 1);
+        }
+    }
+
+    /**
+     * Parallel lexicographic Gauss-Seidel as a pipelined wavefront. Task i
+     * starts sweep t once task i - 1 has finished sweep t, so its left
+     * neighbour is already new, and task i + 1 has finished sweep t - 1. Each
+     * task signals the end of every sweep through its own phaser, so after a
+     * start-up of taskCnt - 1 steps the tasks work on consecutive sweeps at
+     * the same time.
+     *
+     * @param iterations The number of sweeps to run
+     * @param x The solution, updated in place
+     * @param n The size of this problem
+     * @param taskCnt The number of threads/tasks to use to compute the solution
+     */
+    public static void runParallelWavefront(final int iterations,
+            final double[] x, final int n, final int taskCnt) {
+        runParallelWavefront(iterations, x, n, NeighbourSync.phaser(taskCnt));
+    }
+
+    /**
+     * {@link #runParallelWavefront(int, double[], int, int)} with a choice
+     * of neighbour synchronization, one task per slot. The synchronizer may
+     * be reused from an earlier run: every task starts from its
+     * {@link NeighbourSync#nextArrival} rather than from zero.
+     *
+     * @param iterations The number of sweeps to run
+     * @param x The solution, updated in place
+     * @param n The size of this problem
+     * @param sync Neighbour synchronization with one slot per task
+     */
+    public static void runParallelWavefront(final int iterations,
+            final double[] x, final int n, final NeighbourSync sync) {
+        final int taskCnt = sync.getTaskCount();
+        final Partition partition = Partition.balanced(n, taskCnt);
+
+        OneDimAveragingPhaser.runTasks(taskCnt, (i) -> {
+            final int left = partition.getLeft(i);
+            final int right = partition.getRight(i);
+            // Arrival number of this run's first sweep
+            final int first = sync.nextArrival(i);
+
+            for (int iter = 0; iter < iterations; iter++) {
+                // x[left - 1] must already hold sweep iter
+                if (i > 0) {
+                    sync.awaitNeighbour(i, i - 1, first + iter);
+                }
+                // x[right + 1] must hold sweep iter - 1
+                if (i < taskCnt - 1 && iter > 0) {
+                    sync.awaitNeighbour(i, i + 1, first + iter - 1);
+                }
+                sweep(x, left, right, 1);
+                sync.arrive(i);
+            }
+        });
+    }
+
+    /**
+     * Sequential red-black Gauss-Seidel: every sweep first updates the odd
+     * (red) points, which only read even ones, and then the even (black)
+     * points.
+     *
+     * @param iterations The number of sweeps to run
+     * @param x The solution, updated in place
+     * @param n The size of this problem
+     */
+    public static void runSequentialRedBlack(final int iterations,
+            final double[] x, final int n) {
+        for (int iter = 0; iter < iterations; iter++) {
+            sweep(x, 1, n, 2);
+            sweep(x, 2, n, 2);
+        }
+    }
+
+    /**
+     * Parallel red-black Gauss-Seidel. Points of one colour only read points
+     * of the other, so all tasks update their red points, meet at a barrier,
+     * update their black points and meet again.
+     *
+     * @param iterations The number of sweeps to run
+     * @param x The solution, updated in place
+     * @param n The size of this problem
+     * @param taskCnt The number of threads/tasks to use to compute the solution
+     */
+    public static void runParallelRedBlack(final int iterations,
+            final double[] x, final int n, final int taskCnt) {
+        final Partition partition = Partition.balanced(n, taskCnt);
+        final Phaser ph = new Phaser(0);
+        ph.bulkRegister(taskCnt);
+
+        OneDimAveragingPhaser.runTasks(taskCnt, (i) -> {
+            final int left = partition.getLeft(i);
+            final int right = partition.getRight(i);
+            final int firstRed = left % 2 == 1 ? left : left + 1;
+            final int firstBlack = left % 2 == 0 ? left : left + 1;
+
+            for (int iter = 0; iter < iterations; iter++) {
+                sweep(x, firstRed, right, 2);
+                ph.arriveAndAwaitAdvance();
+                sweep(x, firstBlack, right, 2);
+                ph.arriveAndAwaitAdvance();
+            }
+        });
+    }
+
+    /**
+     * Replace x[j] by the average of its neighbours in place for j = first,
+     * first + step, ... up to last.
+     *
+     * @param x The solution
+     * @param first First point to update
+     * @param last Last point that may be updated
+     * @param step Distance between updated points
+     */
+    private static void sweep(final double[] x, final int first,
+            final int last, final int step) {
+        for (int j = first; j <= last; j += step) {
+            x[j] = (x[j - 1] + x[j + 1]) / 2.0;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package edu.coursera.parallel;
+
+/**
+ * A split of the elements 1..n of a one-dimensional problem into contiguous
+ * chunks, one per task. Chunk i covers getLeft(i)..getRight(i) inclusive,
+ * chunks are in order and together cover every element exactly once.
+ *
+ * {@link #balanced} gives every chunk n / parts or n / parts + 1 elements.
+ * {@link #weighted} balances a per-element cost instead, for problems whose
+ * points are not equally expensive to update.
+ */
+public final class Partition {
+
+    /**
+     * starts[i] is the first element of chunk i; starts[parts] is n + 1.
+     */
+    private final int[] starts;
+
+    /**
+     * Constructor.
+     *
+     * @param setStarts First element of each chunk, followed by n + 1
+     */
+    private Partition(final int[] setStarts) {
+        this.starts = setStarts;
+    }
+
+    /**
+     * Split n elements as evenly as possible: the first n % parts chunks get
+     * one element more than the others.
+     *
+     * @param n Number of elements
+     * @param parts Number of chunks
+     * @return The partition
+     */
+    public static Partition balanced(final int n, final int parts) {
+        checkArguments(n, parts);
+        final int base = n / parts;
+        final int extra = n % parts;
+        final int[] starts = new int[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            starts[i] = i * base + Math.min(i, extra) + 1;
+        }
+        return new Partition(starts);
+    }
+
+    /**
+     * Split n elements so that every chunk carries about the same total cost.
+     * Chunk boundaries are placed where the prefix sum of cost comes closest
+     * to a multiple of total / parts. When n is at least parts no chunk is
+     * left empty.
+     *
+     * @param cost Non-negative cost of updating each element, indexed 1..n
+     * like the problem arrays
+     * @param n Number of elements
+     * @param parts Number of chunks
+     * @return The partition
+     */
+    public static Partition weighted(final double[] cost, final int n,
+            final int parts) {
+        checkArguments(n, parts);
+        final double[] prefix = new double[n + 1];
+        for (int j = 1; j <= n; j++) {
+            if (!(cost[j] >= 0.0) || Double.isInfinite(cost[j])) {
+                throw new IllegalArgumentException("Costs must be finite and "
+                        + "non-negative, cost[" + j + "]=" + cost[j]);
+            }
+            prefix[j] = prefix[j - 1] + cost[j];
+        }
+        final double total = prefix[n];
+        if (total == 0.0) {
+            return balanced(n, parts);
+        }
+
+        final int[] starts = new int[parts + 1];
+        starts[0] = 1;
+        starts[parts] = n + 1;
+        for (int k = 1; k < parts; k++) {
+            final double target = total * k / parts;
+            // Smallest end such that prefix[end] >= target
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (prefix[mid] >= target) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            int end = lo;
+            if (end > 0 && target - prefix[end - 1] < prefix[end] - target) {
+                end--;
+            }
+
+            int start = end + 1;
+            if (n >= parts) {
+                start = Math.max(start, starts[k - 1] + 1);
+                start = Math.min(start, n + 1 - (parts - k));
+            } else {
+                start = Math.max(start, starts[k - 1]);
+            }
+            starts[k] = start;
+        }
+        return new Partition(starts);
+    }
+
+    /**
+     * Getter for the number of chunks.
+     *
+     * @return The number of chunks
+     */
+    public int getParts() {
+        return starts.length - 1;
+    }
+
+    /**
+     * Getter for the number of elements.
+     *
+     * @return The number of elements covered by all chunks
+     */
+    public int getN() {
+        return starts[starts.length - 1] - 1;
+    }
+
+    /**
+     * First element of chunk i.
+     *
+     * @param i Index of the chunk
+     * @return The 1-based index of the first element of chunk i
+     */
+    public int getLeft(final int i) {
+        return starts[i];
+    }
+
+    /**
+     * Last element of chunk i, smaller than getLeft(i) if it is empty.
+     *
+     * @param i Index of the chunk
+     * @return The 1-based index of the last element of chunk i
+     */
+    public int getRight(final int i) {
+        return starts[i + 1] - 1;
+    }
+
+    /**
+     * Number of elements in chunk i.
+     *
+     * @param i Index of the chunk
+     * @return The size of chunk i
+     */
+    public int getSize(final int i) {
+        return starts[i + 1] - starts[i];
+    }
+
+    /**
+     * Number of elements in the smallest chunk.
+     *
+     * @return The size of the smallest chunk
+     */
+    public int getMinSize() {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < getParts(); i++) {
+            min = Math.min(min, getSize(i));
+        }
+        return min;
+    }
+
+    /**
+     * Validate the arguments of a factory method.
+     *
+     * @param n Number of elements
+     * @param parts Number of chunks
+     */
+    private static void checkArguments(final int n, final int parts) {
+        if (n < 0 || parts <= 0) {
+            throw new IllegalArgumentException("Expected n >= 0 and parts > 0, "
+                    + "n=" + n + ", parts=" + parts);
+        }
+    }
+}
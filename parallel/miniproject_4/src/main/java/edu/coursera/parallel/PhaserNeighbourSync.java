@@ -0,0 +1,61 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * {@link NeighbourSync} with one single-party Phaser per task: arriving is
+ * Phaser.arrive and waiting is Phaser.awaitAdvance on the neighbour's phaser.
+ */
+final class PhaserNeighbourSync implements NeighbourSync {
+
+    /**
+     * One phaser per task, each with a single registered party.
+     */
+    private final Phaser[] ph;
+
+    /**
+     * Constructor.
+     *
+     * @param taskCnt The number of tasks in the chain
+     */
+    PhaserNeighbourSync(final int taskCnt) {
+        this.ph = new Phaser[taskCnt];
+        for (int i = 0; i < taskCnt; i++) {
+            ph[i] = new Phaser(1);
+        }
+    }
+
+    @Override
+    public int getTaskCount() {
+        return ph.length;
+    }
+
+    @Override
+    public int arrive(final int i) {
+        return ph[i].arrive();
+    }
+
+    @Override
+    public int nextArrival(final int i) {
+        return ph[i].getPhase();
+    }
+
+    @Override
+    public void awaitNeighbour(final int i, final int j, final int arrived) {
+        ph[j].awaitAdvance(arrived);
+    }
+
+    @Override
+    public void terminate() {
+        for (Phaser p : ph) {
+            p.forceTermination();
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < ph.length; i++) {
+            ph[i] = new Phaser(1);
+        }
+    }
+}
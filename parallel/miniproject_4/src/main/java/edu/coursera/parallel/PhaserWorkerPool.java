@@ -0,0 +1,188 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * A fixed set of worker threads that stay parked between jobs, so that
+ * repeated parallel phases pay only for their computation and not for thread
+ * creation.
+ *
+ * Workers and the invoking thread are all registered on one control phaser.
+ * Each {@link #invoke} uses two phases of it: the first releases the workers
+ * into the job and the second waits for all of them to finish it. Between
+ * jobs the workers are parked inside Phaser.arriveAndAwaitAdvance.
+ *
+ * If a task throws while its peers wait for it on the job's own barriers,
+ * those peers would never return. Jobs that synchronize their tasks
+ * therefore pass invoke an abort action, which the failing worker runs to
+ * release the waiters, and a recover action, which rebuilds the released
+ * synchronizers before invoke rethrows the failure.
+ */
+public final class PhaserWorkerPool implements AutoCloseable {
+
+    /**
+     * Worker threads, one per task index.
+     */
+    private final Thread[] workers;
+
+    /**
+     * Phaser shared by the workers and the invoking thread.
+     */
+    private final Phaser control;
+
+    /**
+     * The job of the current invocation, published by the start phase.
+     */
+    private IntConsumer job;
+
+    /**
+     * Abort action of the current invocation, or null.
+     */
+    private Runnable abort;
+
+    /**
+     * Set once close() has been called.
+     */
+    private volatile boolean closed;
+
+    /**
+     * First failure thrown by a task during the current invocation.
+     */
+    private final AtomicReference<Throwable> failure =
+        new AtomicReference<>();
+
+    /**
+     * Start taskCnt parked daemon workers.
+     *
+     * @param taskCnt The number of worker threads/tasks
+     */
+    public PhaserWorkerPool(final int taskCnt) {
+        if (taskCnt <= 0) {
+            throw new IllegalArgumentException("taskCnt must be positive, was "
+                    + taskCnt);
+        }
+        this.control = new Phaser(taskCnt + 1);
+        this.workers = new Thread[taskCnt];
+        for (int ii = 0; ii < taskCnt; ii++) {
+            final int i = ii;
+            workers[ii] = new Thread(() -> workerLoop(i),
+                    "PhaserWorkerPool-" + i);
+            workers[ii].setDaemon(true);
+            workers[ii].start();
+        }
+    }
+
+    /**
+     * Getter for the number of workers.
+     *
+     * @return The number of worker threads/tasks
+     */
+    public int getTaskCount() {
+        return workers.length;
+    }
+
+    /**
+     * Run body once on every worker, passing the worker's task index, and
+     * wait for all of them to return. Tasks of the same invocation run
+     * concurrently, but must not wait for each other: use
+     * {@link #invoke(IntConsumer, Runnable, Runnable)} for tasks that do.
+     *
+     * @param body The work of each task, given its index
+     */
+    public void invoke(final IntConsumer body) {
+        invoke(body, null, null);
+    }
+
+    /**
+     * Run body once on every worker, passing the worker's task index, and
+     * wait for all of them to return. Tasks of the same invocation run
+     * concurrently, so they may synchronize with each other.
+     *
+     * If a task throws, the worker that caught the first failure runs
+     * onAbort straight away. It must make every wait of the job's tasks
+     * return, for example with Phaser.forceTermination, so that the other
+     * tasks run to completion. Once they all have, onRecover runs on the
+     * calling thread to replace what onAbort broke, and the failure is
+     * rethrown.
+     *
+     * @param body The work of each task, given its index
+     * @param onAbort Releases tasks waiting on each other, or null
+     * @param onRecover Restores the job's synchronizers, or null
+     */
+    public synchronized void invoke(final IntConsumer body,
+            final Runnable onAbort, final Runnable onRecover) {
+        if (closed) {
+            throw new IllegalStateException("PhaserWorkerPool is closed");
+        }
+        job = body;
+        abort = onAbort;
+        failure.set(null);
+        control.arriveAndAwaitAdvance();
+        control.arriveAndAwaitAdvance();
+        job = null;
+        abort = null;
+
+        final Throwable t = failure.getAndSet(null);
+        if (t != null && onRecover != null) {
+            onRecover.run();
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Release the workers and wait for them to exit. Further calls to invoke
+     * fail.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        control.arriveAndDeregister();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Body of worker i: park until a job is published, run it, report
+     * completion, and repeat until closed.
+     *
+     * @param i Index of this worker
+     */
+    private void workerLoop(final int i) {
+        while (true) {
+            control.arriveAndAwaitAdvance();
+            if (closed) {
+                control.arriveAndDeregister();
+                return;
+            }
+            try {
+                job.accept(i);
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t) && abort != null) {
+                    try {
+                        abort.run();
+                    } catch (Throwable a) {
+                        t.addSuppressed(a);
+                    }
+                }
+            }
+            control.arriveAndAwaitAdvance();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package edu.coursera.parallel;
+
+/**
+ * How the change made by one sweep of an iterative solver is measured when
+ * testing for convergence.
+ */
+public enum ResidualNorm {
+    /**
+     * The largest absolute change of any point.
+     */
+    MAX,
+
+    /**
+     * The Euclidean norm of the change over all points.
+     */
+    L2
+}
@@ -0,0 +1,149 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link NeighbourSync} built on one volatile arrival counter per task. A
+ * waiter first spins on its neighbour's counter with Thread.onSpinWait, which
+ * is cheap when neighbours finish at nearly the same time, and only parks
+ * once the spin budget is spent. An arriving task unparks a neighbour only if
+ * that neighbour has announced it is parked on it.
+ *
+ * Each task's counter and parking flag sit on their own 128-byte stretch of
+ * an int array, so tasks polling different counters do not share cache
+ * lines (or adjacent-line prefetch pairs).
+ */
+final class SpinParkNeighbourSync implements NeighbourSync {
+
+    /**
+     * Default number of polls before a waiter parks. Spinning cannot help on
+     * a single processor, where the awaited task needs the waiter's CPU.
+     */
+    static final int DEFAULT_SPINS =
+        Runtime.getRuntime().availableProcessors() > 1 ? 1 << 10 : 0;
+
+    /**
+     * Ints between the states of consecutive tasks: 128 bytes.
+     */
+    private static final int STRIDE = 32;
+
+    /**
+     * Offset of the arrival counter within a task's stretch.
+     */
+    private static final int COUNT = 0;
+
+    /**
+     * Offset of the parking flag: 1 + index of the neighbour the task is
+     * parked on, or 0.
+     */
+    private static final int PARKED_ON = 1;
+
+    /**
+     * Per-task counters and parking flags, padded, see STRIDE.
+     */
+    private final AtomicIntegerArray state;
+
+    /**
+     * Thread of each task, recorded before it first parks.
+     */
+    private final AtomicReferenceArray<Thread> threads;
+
+    /**
+     * Number of tasks in the chain.
+     */
+    private final int taskCnt;
+
+    /**
+     * Polls before a waiter parks.
+     */
+    private final int spins;
+
+    /**
+     * Set by terminate, releasing all waiters until reset.
+     */
+    private volatile boolean terminated;
+
+    /**
+     * Constructor.
+     *
+     * @param setTaskCnt The number of tasks in the chain
+     * @param setSpins Polls of the neighbour's counter before parking
+     */
+    SpinParkNeighbourSync(final int setTaskCnt, final int setSpins) {
+        this.taskCnt = setTaskCnt;
+        this.spins = setSpins;
+        // One extra stretch keeps the last task off its neighbour's line
+        this.state = new AtomicIntegerArray((setTaskCnt + 1) * STRIDE);
+        this.threads = new AtomicReferenceArray<>(setTaskCnt);
+    }
+
+    @Override
+    public int getTaskCount() {
+        return taskCnt;
+    }
+
+    @Override
+    public int arrive(final int i) {
+        final int arrived = state.getAndIncrement(i * STRIDE + COUNT);
+        /*
+         * The counter write above and the flag read below pair with the flag
+         * write and counter re-read in awaitNeighbour: both are volatile, so
+         * either the waiter sees the new count or this task sees the flag.
+         */
+        if (i > 0 && state.get((i - 1) * STRIDE + PARKED_ON) == i + 1) {
+            LockSupport.unpark(threads.get(i - 1));
+        }
+        if (i < taskCnt - 1
+                && state.get((i + 1) * STRIDE + PARKED_ON) == i + 1) {
+            LockSupport.unpark(threads.get(i + 1));
+        }
+        return arrived;
+    }
+
+    @Override
+    public int nextArrival(final int i) {
+        return state.get(i * STRIDE + COUNT);
+    }
+
+    @Override
+    public void awaitNeighbour(final int i, final int j, final int arrived) {
+        final int count = j * STRIDE + COUNT;
+        for (int s = 0; s < spins; s++) {
+            if (state.get(count) - arrived > 0 || terminated) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+
+        threads.set(i, Thread.currentThread());
+        state.set(i * STRIDE + PARKED_ON, j + 1);
+        while (state.get(count) - arrived <= 0 && !terminated) {
+            LockSupport.park(this);
+        }
+        state.set(i * STRIDE + PARKED_ON, 0);
+    }
+
+    @Override
+    public void terminate() {
+        terminated = true;
+        for (int i = 0; i < taskCnt; i++) {
+            final Thread t = threads.get(i);
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int k = 0; k < state.length(); k++) {
+            state.set(k, 0);
+        }
+        for (int i = 0; i < taskCnt; i++) {
+            threads.set(i, null);
+        }
+        terminated = false;
+    }
+}
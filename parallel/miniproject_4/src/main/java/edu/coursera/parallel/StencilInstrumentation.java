@@ -0,0 +1,339 @@
+package edu.coursera.parallel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Optional timing of a phaser-based stencil run, to tell compute imbalance,
+ * synchronization wait and thread start-up apart. For every task it records
+ * the delay between the start of the run and the start of the task, the
+ * total time spent computing, the total time blocked in the barrier or
+ * neighbour waits, and the time at which it arrived at each iteration's
+ * synchronization point. Iteration skew is the spread of those arrival times
+ * across tasks.
+ *
+ * All buffers are allocated up front, and each task writes only its own
+ * rows, padded apart from the other tasks' rows, so recording costs two
+ * System.nanoTime calls and a store per iteration and does not slow the
+ * tasks down through false sharing. Results are read after the run, as a text summary or as JFR
+ * events. Pass an instance to the instrumented overloads of
+ * {@link OneDimAveragingPhaser}; one instance records one run at a time.
+ */
+public final class StencilInstrumentation {
+
+    /**
+     * Index of the start-up delay in a row of totals.
+     */
+    private static final int STARTUP = 0;
+
+    /**
+     * Index of the compute total in a row of totals.
+     */
+    private static final int COMPUTE = 1;
+
+    /**
+     * Index of the wait total in a row of totals.
+     */
+    private static final int WAIT = 2;
+
+    /**
+     * Longs per row of totals: 128 bytes, so that the rows written by
+     * different tasks on every iteration never share a cache line.
+     */
+    private static final int ROW_LENGTH = 16;
+
+    /**
+     * Arrival time of each task at each iteration, [task][iteration].
+     */
+    private final long[][] arrivals;
+
+    /**
+     * Start-up delay, compute and wait totals of each task,
+     * [task][STARTUP, COMPUTE or WAIT], padded, see ROW_LENGTH.
+     */
+    private final long[][] totals;
+
+    /**
+     * Time the current run started.
+     */
+    private long runStart;
+
+    /**
+     * Number of tasks of the last run.
+     */
+    private int taskCnt;
+
+    /**
+     * Number of iterations of the last run.
+     */
+    private int iterations;
+
+    /**
+     * Allocate buffers for runs of up to maxTasks tasks and maxIterations
+     * iterations.
+     *
+     * @param maxTasks The largest number of tasks to record
+     * @param maxIterations The largest number of iterations to record
+     */
+    public StencilInstrumentation(final int maxTasks,
+            final int maxIterations) {
+        this.arrivals = new long[maxTasks][maxIterations];
+        this.totals = new long[maxTasks][ROW_LENGTH];
+    }
+
+    /**
+     * Mark the start of a run, before any task thread is started.
+     *
+     * @param setTaskCnt The number of tasks of the run
+     * @param setIterations The number of iterations of the run
+     */
+    void begin(final int setTaskCnt, final int setIterations) {
+        if (setTaskCnt > arrivals.length || (setTaskCnt > 0
+                && setIterations > arrivals[0].length)) {
+            throw new IllegalArgumentException("Instrumentation sized for "
+                    + arrivals.length + " tasks and "
+                    + (arrivals.length > 0 ? arrivals[0].length : 0)
+                    + " iterations, run has " + setTaskCnt + " tasks and "
+                    + setIterations + " iterations");
+        }
+        this.taskCnt = setTaskCnt;
+        this.iterations = setIterations;
+        this.runStart = System.nanoTime();
+    }
+
+    /**
+     * Record that task i has started.
+     *
+     * @param i Index of the task
+     * @return The current time, to start timing the first iteration
+     */
+    long taskStarted(final int i) {
+        final long now = System.nanoTime();
+        totals[i][STARTUP] = now - runStart;
+        totals[i][COMPUTE] = 0L;
+        totals[i][WAIT] = 0L;
+        return now;
+    }
+
+    /**
+     * Record one iteration of task i.
+     *
+     * @param i Index of the task
+     * @param iter Index of the iteration
+     * @param computeStart Time the iteration's computation started
+     * @param arrived Time the task reached the synchronization point
+     * @param released Time the task was released from it
+     */
+    void iteration(final int i, final int iter, final long computeStart,
+            final long arrived, final long released) {
+        final long[] row = totals[i];
+        row[COMPUTE] += arrived - computeStart;
+        row[WAIT] += released - arrived;
+        arrivals[i][iter] = arrived;
+    }
+
+    /**
+     * Getter for the number of tasks of the last run.
+     *
+     * @return The number of tasks recorded
+     */
+    public int getTaskCount() {
+        return taskCnt;
+    }
+
+    /**
+     * Time between the start of the last run and the start of task i.
+     *
+     * @param i Index of the task
+     * @return The start-up delay in nanoseconds
+     */
+    public long getStartupNanos(final int i) {
+        return totals[i][STARTUP];
+    }
+
+    /**
+     * Time task i spent computing in the last run.
+     *
+     * @param i Index of the task
+     * @return The compute time in nanoseconds
+     */
+    public long getComputeNanos(final int i) {
+        return totals[i][COMPUTE];
+    }
+
+    /**
+     * Time task i spent blocked on synchronization in the last run.
+     *
+     * @param i Index of the task
+     * @return The wait time in nanoseconds
+     */
+    public long getWaitNanos(final int i) {
+        return totals[i][WAIT];
+    }
+
+    /**
+     * Spread of the tasks' arrival times at one iteration.
+     *
+     * @param iter Index of the iteration
+     * @return The latest minus the earliest arrival, in nanoseconds
+     */
+    public long getSkewNanos(final int iter) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < taskCnt; i++) {
+            min = Math.min(min, arrivals[i][iter]);
+            max = Math.max(max, arrivals[i][iter]);
+        }
+        return taskCnt == 0 ? 0L : max - min;
+    }
+
+    /**
+     * Largest iteration skew of the last run.
+     *
+     * @return The largest skew in nanoseconds
+     */
+    public long getMaxSkewNanos() {
+        long max = 0L;
+        for (int iter = 0; iter < iterations; iter++) {
+            max = Math.max(max, getSkewNanos(iter));
+        }
+        return max;
+    }
+
+    /**
+     * Mean iteration skew of the last run.
+     *
+     * @return The mean skew in nanoseconds
+     */
+    public double getMeanSkewNanos() {
+        if (iterations == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int iter = 0; iter < iterations; iter++) {
+            sum += getSkewNanos(iter);
+        }
+        return sum / iterations;
+    }
+
+    /**
+     * A human-readable summary of the last run: one line per task, then the
+     * iteration skew.
+     *
+     * @return The summary
+     */
+    public String summary() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d tasks, %d iterations%n", taskCnt,
+                    iterations));
+        for (int i = 0; i < taskCnt; i++) {
+            sb.append(String.format("task %3d: startup %10.3f ms, compute "
+                        + "%10.3f ms, wait %10.3f ms%n", i,
+                        getStartupNanos(i) / 1e6, getComputeNanos(i) / 1e6,
+                        getWaitNanos(i) / 1e6));
+        }
+        sb.append(String.format("iteration skew: mean %.3f us, max %.3f us%n",
+                    getMeanSkewNanos() / 1e3, getMaxSkewNanos() / 1e3));
+        return sb.toString();
+    }
+
+    /**
+     * Emit the last run as JFR events: one StencilTask event per task and
+     * one StencilRun event. Events are only recorded while a JFR recording
+     * with them enabled is running.
+     */
+    public void emitJfrEvents() {
+        for (int i = 0; i < taskCnt; i++) {
+            final TaskEvent event = new TaskEvent();
+            event.task = i;
+            event.startup = getStartupNanos(i);
+            event.compute = getComputeNanos(i);
+            event.waited = getWaitNanos(i);
+            event.commit();
+        }
+        final RunEvent event = new RunEvent();
+        event.tasks = taskCnt;
+        event.iterations = iterations;
+        event.meanSkew = (long) getMeanSkewNanos();
+        event.maxSkew = getMaxSkewNanos();
+        event.commit();
+    }
+
+    /**
+     * Totals of one task of a stencil run.
+     */
+    @Name("edu.coursera.parallel.StencilTask")
+    @Label("Stencil Task")
+    @Category("Stencil")
+    @Description("Start-up, compute and synchronization wait time of one "
+            + "task of a stencil run")
+    static final class TaskEvent extends Event {
+
+        /**
+         * Index of the task.
+         */
+        @Label("Task")
+        int task;
+
+        /**
+         * Start-up delay.
+         */
+        @Label("Startup")
+        @Timespan(Timespan.NANOSECONDS)
+        long startup;
+
+        /**
+         * Compute time.
+         */
+        @Label("Compute")
+        @Timespan(Timespan.NANOSECONDS)
+        long compute;
+
+        /**
+         * Synchronization wait time.
+         */
+        @Label("Wait")
+        @Timespan(Timespan.NANOSECONDS)
+        long waited;
+    }
+
+    /**
+     * Iteration skew of a stencil run.
+     */
+    @Name("edu.coursera.parallel.StencilRun")
+    @Label("Stencil Run")
+    @Category("Stencil")
+    @Description("Size and iteration skew of a stencil run")
+    static final class RunEvent extends Event {
+
+        /**
+         * Number of tasks.
+         */
+        @Label("Tasks")
+        int tasks;
+
+        /**
+         * Number of iterations.
+         */
+        @Label("Iterations")
+        int iterations;
+
+        /**
+         * Mean spread of arrival times per iteration.
+         */
+        @Label("Mean Skew")
+        @Timespan(Timespan.NANOSECONDS)
+        long meanSkew;
+
+        /**
+         * Largest spread of arrival times per iteration.
+         */
+        @Label("Max Skew")
+        @Timespan(Timespan.NANOSECONDS)
+        long maxSkew;
+    }
+}
@@ -0,0 +1,135 @@
+package edu.coursera.parallel;
+
+import java.util.Arrays;
+
+/**
+ * Weights of a star (face-neighbour) stencil on a 2-D or 3-D grid: one weight
+ * for the centre point and one for each of its two neighbours along every
+ * axis. Axis 0 is the outermost array index, so a 2-D grid is indexed
+ * [y][x] and a 3-D grid [z][y][x].
+ *
+ * Only face neighbours are supported, which is what lets the Jacobi engines
+ * synchronize each block with its face neighbours alone.
+ */
+public final class StencilWeights {
+
+    /**
+     * Weight of the centre point.
+     */
+    private final double center;
+
+    /**
+     * Weight of the neighbour at index - 1 along each axis.
+     */
+    private final double[] lower;
+
+    /**
+     * Weight of the neighbour at index + 1 along each axis.
+     */
+    private final double[] upper;
+
+    /**
+     * Constructor.
+     *
+     * @param setCenter Weight of the centre point
+     * @param setLower Weight of the lower neighbour along each axis
+     * @param setUpper Weight of the upper neighbour along each axis
+     */
+    private StencilWeights(final double setCenter, final double[] setLower,
+            final double[] setUpper) {
+        this.center = setCenter;
+        this.lower = setLower;
+        this.upper = setUpper;
+    }
+
+    /**
+     * Weights of a 2-D five-point stencil.
+     *
+     * @param center Weight of [y][x]
+     * @param north Weight of [y - 1][x]
+     * @param south Weight of [y + 1][x]
+     * @param west Weight of [y][x - 1]
+     * @param east Weight of [y][x + 1]
+     * @return The stencil weights
+     */
+    public static StencilWeights of2D(final double center, final double north,
+            final double south, final double west, final double east) {
+        return new StencilWeights(center, new double[] {north, west},
+                new double[] {south, east});
+    }
+
+    /**
+     * Weights of a 3-D seven-point stencil.
+     *
+     * @param center Weight of [z][y][x]
+     * @param below Weight of [z - 1][y][x]
+     * @param above Weight of [z + 1][y][x]
+     * @param north Weight of [z][y - 1][x]
+     * @param south Weight of [z][y + 1][x]
+     * @param west Weight of [z][y][x - 1]
+     * @param east Weight of [z][y][x + 1]
+     * @return The stencil weights
+     */
+    public static StencilWeights of3D(final double center, final double below,
+            final double above, final double north, final double south,
+            final double west, final double east) {
+        return new StencilWeights(center, new double[] {below, north, west},
+                new double[] {above, south, east});
+    }
+
+    /**
+     * The averaging stencil generalizing the 1-D problem: the centre is
+     * ignored and every face neighbour weighs 1 / (2 * dimensions).
+     *
+     * @param dimensions 2 or 3
+     * @return The stencil weights
+     */
+    public static StencilWeights averaging(final int dimensions) {
+        if (dimensions != 2 && dimensions != 3) {
+            throw new IllegalArgumentException("Only 2-D and 3-D stencils are "
+                    + "supported, dimensions=" + dimensions);
+        }
+        final double w = 1.0 / (2 * dimensions);
+        final double[] faces = new double[dimensions];
+        Arrays.fill(faces, w);
+        return new StencilWeights(0.0, faces, faces.clone());
+    }
+
+    /**
+     * Getter for the number of dimensions.
+     *
+     * @return The number of grid axes these weights apply to
+     */
+    public int getDimensions() {
+        return lower.length;
+    }
+
+    /**
+     * Getter for the centre weight.
+     *
+     * @return Weight of the centre point
+     */
+    public double getCenter() {
+        return center;
+    }
+
+    /**
+     * Getter for a lower neighbour weight.
+     *
+     * @param axis Grid axis, 0 being the outermost array index
+     * @return Weight of the neighbour at index - 1 along axis
+     */
+    public double getLower(final int axis) {
+        return lower[axis];
+    }
+
+    /**
+     * Getter for an upper neighbour weight.
+     *
+     * @param axis Grid axis, 0 being the outermost array index
+     * @return Weight of the neighbour at index + 1 along axis
+     */
+    public double getUpper(final int axis) {
+        return upper[axis];
+    }
+}
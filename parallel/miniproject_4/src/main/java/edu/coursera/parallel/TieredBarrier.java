@@ -0,0 +1,118 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+/**
+ * A global barrier over taskCnt tasks built as a tree of tiered phasers. Each
+ * task arrives on the leaf phaser of its group of at most fanOut tasks; a
+ * leaf whose parties have all arrived arrives on its parent in turn, and the
+ * phase of the whole tree advances once the root completes. Arrivals thus
+ * contend on fanOut-sized state words instead of all updating one.
+ *
+ * With fanOut at least taskCnt the tree is a single flat phaser, the same
+ * barrier {@link OneDimAveragingPhaser#runParallelBarrier} uses by default.
+ */
+public final class TieredBarrier {
+
+    /**
+     * Phaser each task arrives on, indexed by task.
+     */
+    private final Phaser[] leaves;
+
+    /**
+     * Largest number of parties registered on any phaser of the tree.
+     */
+    private final int fanOut;
+
+    /**
+     * Number of phaser levels from the root down to the leaves.
+     */
+    private final int depth;
+
+    /**
+     * Build the tree.
+     *
+     * @param taskCnt The number of tasks taking part
+     * @param setFanOut Largest number of tasks or child phasers per phaser,
+     * at least 2
+     */
+    public TieredBarrier(final int taskCnt, final int setFanOut) {
+        if (taskCnt <= 0 || setFanOut < 2) {
+            throw new IllegalArgumentException("Expected taskCnt > 0 and "
+                    + "fanOut >= 2, taskCnt=" + taskCnt + ", fanOut="
+                    + setFanOut);
+        }
+        this.fanOut = setFanOut;
+        this.leaves = new Phaser[taskCnt];
+        if (taskCnt <= setFanOut) {
+            final Phaser flat = new Phaser(taskCnt);
+            for (int i = 0; i < taskCnt; i++) {
+                leaves[i] = flat;
+            }
+            this.depth = 1;
+        } else {
+            this.depth = 1 + build(new Phaser(), 0, taskCnt);
+        }
+    }
+
+    /**
+     * Getter for the number of tasks.
+     *
+     * @return The number of tasks taking part
+     */
+    public int getTaskCount() {
+        return leaves.length;
+    }
+
+    /**
+     * Getter for the depth of the tree.
+     *
+     * @return The number of phaser levels, 1 for a flat barrier
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The phaser task i must use, with arriveAndAwaitAdvance, to pass the
+     * barrier.
+     *
+     * @param i Index of the task
+     * @return The leaf phaser of task i's group
+     */
+    public Phaser forTask(final int i) {
+        return leaves[i];
+    }
+
+    /**
+     * Attach tasks first..first + count - 1, more than fanOut of them, below
+     * parent: split them into at most fanOut groups, give each group of at
+     * most fanOut tasks a leaf phaser and each larger group a subtree.
+     *
+     * @param parent Phaser the groups register on
+     * @param first Index of the first task
+     * @param count Number of tasks
+     * @return The number of phaser levels created below parent
+     */
+    private int build(final Phaser parent, final int first,
+            final int count) {
+        final int groups = Math.min(fanOut, (count + fanOut - 1) / fanOut);
+        final Partition split = Partition.balanced(count, groups);
+        int below = 0;
+        for (int g = 0; g < groups; g++) {
+            final int start = first + split.getLeft(g) - 1;
+            final int size = split.getSize(g);
+            if (size <= fanOut) {
+                final Phaser leaf = new Phaser(parent, size);
+                for (int i = start; i < start + size; i++) {
+                    leaves[i] = leaf;
+                }
+                below = Math.max(below, 1);
+            } else {
+                below = Math.max(below,
+                        1 + build(new Phaser(parent), start, size));
+            }
+        }
+        return below;
+    }
+}
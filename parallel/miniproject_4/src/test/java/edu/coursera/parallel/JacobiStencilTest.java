@@ -0,0 +1,97 @@
+package edu.coursera.parallel;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class JacobiStencilTest extends TestCase {
+    final static private int niterations = 25;
+
+    private double[][] createGrid(final int ny, final int nx, final long seed) {
+        final double[][] grid = new double[ny + 2][nx + 2];
+        final Random rand = new Random(seed);
+        for (int y = 0; y < ny + 2; y++) {
+            for (int x = 0; x < nx + 2; x++) {
+                grid[y][x] = rand.nextInt(100) / 10.0;
+            }
+        }
+        return grid;
+    }
+
+    private double[][][] createGrid(final int nz, final int ny, final int nx, final long seed) {
+        final double[][][] grid = new double[nz + 2][][];
+        for (int z = 0; z < nz + 2; z++) {
+            grid[z] = createGrid(ny, nx, seed + z);
+        }
+        return grid;
+    }
+
+    private void checkResult(final double[][] ref, final double[][] output) {
+        for (int y = 0; y < ref.length; y++) {
+            for (int x = 0; x < ref[y].length; x++) {
+                assertEquals("Mismatch on output at (" + y + ", " + x + ")", ref[y][x], output[y][x]);
+            }
+        }
+    }
+
+    private void stencil2DTestHelper(final int ny, final int nx, final int blockRows, final int blockCols,
+            final StencilWeights weights) {
+        final double[][] refNew = createGrid(ny, nx, 1);
+        final double[][] refVal = createGrid(ny, nx, 2);
+        final double[][] myNew = createGrid(ny, nx, 1);
+        final double[][] myVal = createGrid(ny, nx, 2);
+
+        try (JacobiStencil2D engine = new JacobiStencil2D(blockRows, blockCols, weights)) {
+            for (int c = 0; c < 3; c++) {
+                JacobiStencil2D.runSequential(niterations + c, refNew, refVal, ny, nx, weights);
+                engine.run(niterations + c, myNew, myVal, ny, nx);
+            }
+        }
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+    }
+
+    private void stencil3DTestHelper(final int nz, final int ny, final int nx, final int blockDepth,
+            final int blockRows, final int blockCols, final StencilWeights weights) {
+        final double[][][] refNew = createGrid(nz, ny, nx, 10);
+        final double[][][] refVal = createGrid(nz, ny, nx, 100);
+        final double[][][] myNew = createGrid(nz, ny, nx, 10);
+        final double[][][] myVal = createGrid(nz, ny, nx, 100);
+
+        try (JacobiStencil3D engine = new JacobiStencil3D(blockDepth, blockRows, blockCols, weights)) {
+            for (int c = 0; c < 3; c++) {
+                JacobiStencil3D.runSequential(niterations + c, refNew, refVal, nz, ny, nx, weights);
+                engine.run(niterations + c, myNew, myVal, nz, ny, nx);
+            }
+        }
+        for (int z = 0; z < nz + 2; z++) {
+            checkResult(refNew[z], myNew[z]);
+            checkResult(refVal[z], myVal[z]);
+        }
+    }
+
+    public void testAveraging2D() {
+        stencil2DTestHelper(64, 64, 2, 2, StencilWeights.averaging(2));
+    }
+
+    public void testWeighted2DUnevenBlocks() {
+        stencil2DTestHelper(37, 53, 3, 4, StencilWeights.of2D(0.5, 0.2, 0.1, 0.15, 0.05));
+    }
+
+    public void testAveraging3D() {
+        stencil3DTestHelper(16, 16, 16, 2, 2, 2, StencilWeights.averaging(3));
+    }
+
+    public void testWeighted3DUnevenBlocks() {
+        stencil3DTestHelper(11, 13, 17, 2, 3, 1, StencilWeights.of3D(0.4, 0.1, 0.1, 0.1, 0.1, 0.05, 0.15));
+    }
+
+    public void testRejectsWrongDimensions() {
+        try {
+            new JacobiStencil2D(2, 2, StencilWeights.averaging(3));
+            fail("Expected a 3-D stencil to be rejected by the 2-D engine");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
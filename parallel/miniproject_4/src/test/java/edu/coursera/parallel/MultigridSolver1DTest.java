@@ -0,0 +1,70 @@
+package edu.coursera.parallel;
+
+import junit.framework.TestCase;
+
+public class MultigridSolver1DTest extends TestCase {
+
+    private static int getNCores() {
+        String ncoresStr = System.getenv("COURSERA_GRADER_NCORES");
+        if (ncoresStr == null) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return Integer.parseInt(ncoresStr);
+        }
+    }
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        return input;
+    }
+
+    private double[] createRhs(final int N) {
+        // -u'' = pi^2 sin(pi x) + 0, so u = sin(pi x) + x with u(0) = 0, u(1) = 1
+        final double[] f = new double[N + 2];
+        for (int j = 1; j <= N; j++) {
+            final double x = (double) j / (N + 1);
+            f[j] = Math.PI * Math.PI * Math.sin(Math.PI * x);
+        }
+        return f;
+    }
+
+    private int solveTestHelper(final int N, final int ntasks, final int maxExpectedCycles) {
+        final double[] u = createArray(N);
+        final double[] f = createRhs(N);
+        final double initial = MultigridSolver1D.residualNorm(u, f, N);
+
+        final int cycles;
+        try (MultigridSolver1D solver = new MultigridSolver1D(ntasks)) {
+            cycles = solver.solve(u, f, N, 1e-9, 100);
+        }
+        assertTrue("Took " + cycles + " cycles, expected at most " + maxExpectedCycles, cycles <= maxExpectedCycles);
+        assertTrue(MultigridSolver1D.residualNorm(u, f, N) <= 1e-9 * initial);
+
+        double maxError = 0.0;
+        for (int j = 0; j <= N + 1; j++) {
+            final double x = (double) j / (N + 1);
+            maxError = Math.max(maxError, Math.abs(u[j] - (Math.sin(Math.PI * x) + x)));
+        }
+        // Discretization error of the second-order scheme
+        assertTrue("Max error " + maxError, maxError < 1e-4);
+        return cycles;
+    }
+
+    public void testLargeProblemConvergesInFewCycles() {
+        solveTestHelper((1 << 14) - 1, Math.max(2, getNCores()), 15);
+    }
+
+    public void testUnevenChunksAndEvenCoarseGrid() {
+        // 3001 -> 1500 -> 750 -> 375 -> ... -> 2 unknowns
+        solveTestHelper(3001, 3, 15);
+    }
+
+    public void testEvenSizesTakeVCycles() {
+        // Every level of 1 << 14 is even, so each one ends with a short interval
+        for (int N : new int[] {1000, 1 << 14}) {
+            final int cycles = solveTestHelper(N, Math.max(2, getNCores()), 15);
+            assertTrue("Expected V-cycles rather than a direct solve, took " + cycles, cycles > 1);
+        }
+    }
+}
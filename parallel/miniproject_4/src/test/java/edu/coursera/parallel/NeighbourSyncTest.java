@@ -0,0 +1,79 @@
+package edu.coursera.parallel;
+
+import junit.framework.TestCase;
+
+public class NeighbourSyncTest extends TestCase {
+    // Short chunks, so synchronization rather than computation dominates.
+    final static private int chunk = 64;
+    final static private int niterations = 20000;
+
+    private static int getNCores() {
+        String ncoresStr = System.getenv("COURSERA_GRADER_NCORES");
+        if (ncoresStr == null) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return Integer.parseInt(ncoresStr);
+        }
+    }
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        for (int i = 1; i <= N; i += 7) {
+            input[i] = (i % 5) / 4.0;
+        }
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    private long runFuzzy(final int N, final int ntasks, final NeighbourSync sync, final double[] refNew,
+            final double[] refVal) {
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        final long startTime = System.nanoTime();
+        OneDimAveragingPhaser.runParallelFuzzyBarrier(niterations, myNew, myVal, Partition.balanced(N, ntasks),
+                sync);
+        final long time = System.nanoTime() - startTime;
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+        return time;
+    }
+
+    public void testSpinThenParkMatchesPhaser() {
+        final int ntasks = Math.max(2, getNCores());
+        final int N = ntasks * chunk;
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        OneDimAveragingPhaser.runSequential(niterations, refNew, refVal, N);
+
+        final long phaserTime = runFuzzy(N, ntasks, NeighbourSync.phaser(ntasks), refNew, refVal);
+        final long spinTime = runFuzzy(N, ntasks, NeighbourSync.spinThenPark(ntasks), refNew, refVal);
+        System.out.println(String.format("Spin-then-park ran %d iterations of %d-element chunks %fx faster than "
+                    + "phasers", niterations, chunk, (double) phaserTime / (double) spinTime));
+    }
+
+    public void testEngineWithSpinThenPark() {
+        final int ntasks = 3;
+        final int N = 1000;
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        try (OneDimAveragingEngine engine = new OneDimAveragingEngine(ntasks, NeighbourSync.spinThenPark(ntasks))) {
+            for (int c = 0; c < 20; c++) {
+                OneDimAveragingPhaser.runSequential(50, refNew, refVal, N);
+                engine.runParallelFuzzyBarrier(50, myNew, myVal, N);
+                OneDimAveragingPhaser.runSequential(50, refNew, refVal, N);
+                engine.runParallelTemporalBlocking(50, myNew, myVal, N, 4);
+            }
+        }
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+    }
+}
@@ -0,0 +1,68 @@
+package edu.coursera.parallel;
+
+import junit.framework.TestCase;
+
+public class OneDimAveragingConvergenceTest extends TestCase {
+    final static private int maxIterations = 200000;
+
+    private static int getNCores() {
+        String ncoresStr = System.getenv("COURSERA_GRADER_NCORES");
+        if (ncoresStr == null) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return Integer.parseInt(ncoresStr);
+        }
+    }
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    private void convergenceTestHelper(final int N, final int ntasks, final double tolerance,
+            final ResidualNorm norm, final int checkInterval) {
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+
+        final int refIterations = OneDimAveragingConvergence.runSequential(maxIterations, refNew, refVal, N,
+                tolerance, norm, checkInterval);
+        final int iterations = OneDimAveragingConvergence.runParallel(maxIterations, myNew, myVal, N, ntasks,
+                tolerance, norm, checkInterval);
+
+        assertTrue("Expected to converge before " + maxIterations + " iterations", refIterations < maxIterations);
+        assertEquals(0, refIterations % checkInterval);
+        assertEquals("Mismatch in iteration count", refIterations, iterations);
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+
+        // The solution of the averaging problem is a straight line from 0 to 1
+        final double[] result = iterations % 2 == 0 ? myVal : myNew;
+        assertEquals(0.5, result[(N + 1) / 2], 0.05);
+    }
+
+    public void testConvergesMaxNorm() {
+        convergenceTestHelper(101, Math.max(2, getNCores()), 1e-6, ResidualNorm.MAX, 10);
+    }
+
+    public void testConvergesL2Norm() {
+        convergenceTestHelper(97, 3, 1e-6, ResidualNorm.L2, 7);
+    }
+
+    public void testStopsAtMaxIterations() {
+        final int N = 1000;
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        assertEquals(50, OneDimAveragingConvergence.runParallel(50, myNew, myVal, N, 2, 0.0,
+                ResidualNorm.MAX, 8));
+    }
+}
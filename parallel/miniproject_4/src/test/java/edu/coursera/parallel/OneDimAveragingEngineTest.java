@@ -0,0 +1,169 @@
+package edu.coursera.parallel;
+
+import junit.framework.TestCase;
+
+public class OneDimAveragingEngineTest extends TestCase {
+    // Number of short averaging passes per test, each a separate engine call.
+    final static private int ncalls = 500;
+    // Iterations in each averaging pass.
+    final static private int niterations = 20;
+
+    private static int getNCores() {
+        String ncoresStr = System.getenv("COURSERA_GRADER_NCORES");
+        if (ncoresStr == null) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return Integer.parseInt(ncoresStr);
+        }
+    }
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        for (int i = 1; i <= N; i += 7) {
+            input[i] = (i % 5) / 4.0;
+        }
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    private void engineTestHelper(final int N, final int ntasks, final boolean fuzzy) {
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+
+        final long freshStartTime = System.nanoTime();
+        for (int c = 0; c < ncalls; c++) {
+            if (fuzzy) {
+                OneDimAveragingPhaser.runParallelFuzzyBarrier(niterations, refNew, refVal, N, ntasks);
+            } else {
+                OneDimAveragingPhaser.runParallelBarrier(niterations, refNew, refVal, N, ntasks);
+            }
+        }
+        final long freshTime = System.nanoTime() - freshStartTime;
+
+        final long engineTime;
+        try (OneDimAveragingEngine engine = new OneDimAveragingEngine(ntasks)) {
+            final long engineStartTime = System.nanoTime();
+            for (int c = 0; c < ncalls; c++) {
+                if (fuzzy) {
+                    engine.runParallelFuzzyBarrier(niterations, myNew, myVal, N);
+                } else {
+                    engine.runParallelBarrier(niterations, myNew, myVal, N);
+                }
+            }
+            engineTime = System.nanoTime() - engineStartTime;
+        }
+
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+        System.out.println(String.format("%s engine ran %d calls %fx faster than fresh threads",
+                    fuzzy ? "Fuzzy barrier" : "Barrier", ncalls, (double) freshTime / (double) engineTime));
+    }
+
+    public void testEngineBarrier() {
+        final int ntasks = Math.max(2, getNCores());
+        engineTestHelper(ntasks * 1000, ntasks, false);
+    }
+
+    public void testEngineFuzzyBarrier() {
+        final int ntasks = Math.max(2, getNCores());
+        engineTestHelper(ntasks * 1000, ntasks, true);
+    }
+
+    public void testTemporalBlocking() {
+        final int ntasks = Math.max(2, getNCores());
+        // Uneven chunks and an iteration count that is not a multiple of the block
+        final int N = ntasks * 1000 + ntasks - 1;
+        final int iterations = 2 * niterations + 3;
+        for (int blockIters : new int[] {1, 4, 16, N}) {
+            final double[] refNew = createArray(N);
+            final double[] refVal = createArray(N);
+            final double[] myNew = createArray(N);
+            final double[] myVal = createArray(N);
+
+            OneDimAveragingPhaser.runSequential(iterations, refNew, refVal, N);
+            OneDimAveragingPhaser.runParallelTemporalBlocking(iterations, myNew, myVal, N, ntasks, blockIters);
+            checkResult(refNew, myNew);
+            checkResult(refVal, myVal);
+        }
+
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        try (OneDimAveragingEngine engine = new OneDimAveragingEngine(ntasks)) {
+            // Repeated block sizes reuse the engine's buffers, changes rebuild them
+            for (int c = 0; c < 10; c++) {
+                OneDimAveragingPhaser.runSequential(iterations, refNew, refVal, N);
+                engine.runParallelTemporalBlocking(iterations, myNew, myVal, N, c < 6 ? 8 : 4);
+            }
+        }
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+    }
+
+    /*
+     * A call whose last task throws while the others wait for it, on arrays
+     * too short for the partition, must fail instead of hanging, and leave
+     * the engine usable.
+     */
+    private void failingTaskHelper(final OneDimAveragingEngine engine, final int N) {
+        for (boolean fuzzy : new boolean[] {false, true}) {
+            final double[] shortNew = createArray(N - 50);
+            final double[] shortVal = createArray(N - 50);
+            try {
+                if (fuzzy) {
+                    engine.runParallelFuzzyBarrier(niterations, shortNew, shortVal, N);
+                } else {
+                    engine.runParallelBarrier(niterations, shortNew, shortVal, N);
+                }
+                fail("Expected the failing task's exception");
+            } catch (ArrayIndexOutOfBoundsException e) {
+                // expected
+            }
+
+            final double[] refNew = createArray(N);
+            final double[] refVal = createArray(N);
+            final double[] myNew = createArray(N);
+            final double[] myVal = createArray(N);
+            OneDimAveragingPhaser.runSequential(niterations, refNew, refVal, N);
+            if (fuzzy) {
+                engine.runParallelFuzzyBarrier(niterations, myNew, myVal, N);
+            } else {
+                engine.runParallelBarrier(niterations, myNew, myVal, N);
+            }
+            checkResult(refNew, myNew);
+            checkResult(refVal, myVal);
+        }
+    }
+
+    public void testFailingTaskReleasesBarriers() {
+        final int ntasks = Math.max(2, getNCores());
+        try (OneDimAveragingEngine engine = new OneDimAveragingEngine(ntasks)) {
+            failingTaskHelper(engine, ntasks * 100);
+        }
+        try (OneDimAveragingEngine engine = new OneDimAveragingEngine(ntasks, NeighbourSync.spinThenPark(ntasks))) {
+            failingTaskHelper(engine, ntasks * 100);
+        }
+    }
+
+    public void testClosedEngineRejectsCalls() {
+        final OneDimAveragingEngine engine = new OneDimAveragingEngine(2);
+        engine.close();
+        engine.close();
+        try {
+            engine.runParallelBarrier(1, createArray(10), createArray(10), 10);
+            fail("Expected a closed engine to reject calls");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package edu.coursera.parallel;
+
+import junit.framework.TestCase;
+
+public class OneDimGaussSeidelTest extends TestCase {
+    final static private int niterations = 500;
+
+    private static int getNCores() {
+        String ncoresStr = System.getenv("COURSERA_GRADER_NCORES");
+        if (ncoresStr == null) {
+            return Runtime.getRuntime().availableProcessors();
+        } else {
+            return Integer.parseInt(ncoresStr);
+        }
+    }
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        for (int i = 1; i <= N; i += 7) {
+            input[i] = (i % 5) / 4.0;
+        }
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    private double error(final double[] x, final int N) {
+        // The exact solution is a straight line from 0 to 1
+        double max = 0.0;
+        for (int j = 1; j <= N; j++) {
+            max = Math.max(max, Math.abs(x[j] - (double) j / (N + 1)));
+        }
+        return max;
+    }
+
+    public void testWavefront() {
+        for (int ntasks : new int[] {1, 2, 3, Math.max(2, getNCores())}) {
+            final int N = 1000 + ntasks;
+            final double[] ref = createArray(N);
+            final double[] x = createArray(N);
+            OneDimGaussSeidel.runSequential(niterations, ref, N);
+            OneDimGaussSeidel.runParallelWavefront(niterations, x, N, ntasks);
+            checkResult(ref, x);
+        }
+    }
+
+    public void testWavefrontReusesSync() {
+        final int ntasks = Math.max(3, getNCores());
+        final int N = 1000 + ntasks;
+        for (NeighbourSync sync : new NeighbourSync[] {NeighbourSync.phaser(ntasks),
+                NeighbourSync.spinThenPark(ntasks)}) {
+            final double[] ref = createArray(N);
+            final double[] x = createArray(N);
+            for (int run = 0; run < 3; run++) {
+                OneDimGaussSeidel.runSequential(niterations + run, ref, N);
+                OneDimGaussSeidel.runParallelWavefront(niterations + run, x, N, sync);
+                checkResult(ref, x);
+            }
+        }
+    }
+
+    public void testRedBlack() {
+        for (int ntasks : new int[] {1, 2, 3, Math.max(2, getNCores())}) {
+            final int N = 1000 + ntasks;
+            final double[] ref = createArray(N);
+            final double[] x = createArray(N);
+            OneDimGaussSeidel.runSequentialRedBlack(niterations, ref, N);
+            OneDimGaussSeidel.runParallelRedBlack(niterations, x, N, ntasks);
+            checkResult(ref, x);
+        }
+    }
+
+    public void testConvergesFasterThanJacobi() {
+        final int N = 100;
+        final int iterations = 2000;
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        OneDimAveragingPhaser.runSequential(iterations, myNew, myVal, N);
+        final double jacobiError = error(myVal, N);
+
+        final double[] x = createArray(N);
+        OneDimGaussSeidel.runParallelRedBlack(iterations, x, N, 2);
+        assertTrue("Gauss-Seidel error " + error(x, N) + " not below Jacobi error " + jacobiError,
+                error(x, N) < jacobiError);
+    }
+}
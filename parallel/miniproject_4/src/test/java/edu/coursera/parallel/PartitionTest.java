@@ -0,0 +1,101 @@
+package edu.coursera.parallel;
+
+import junit.framework.TestCase;
+
+public class PartitionTest extends TestCase {
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        for (int i = 1; i <= N; i += 7) {
+            input[i] = (i % 5) / 4.0;
+        }
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    private void checkCovers(final Partition partition, final int n, final int parts) {
+        assertEquals(parts, partition.getParts());
+        assertEquals(n, partition.getN());
+        int next = 1;
+        for (int i = 0; i < parts; i++) {
+            assertEquals("Chunk " + i + " does not start after the previous one", next, partition.getLeft(i));
+            assertTrue("Chunk " + i + " has negative size", partition.getSize(i) >= 0);
+            next = partition.getRight(i) + 1;
+        }
+        assertEquals(n + 1, next);
+    }
+
+    public void testBalanced() {
+        for (int n = 0; n <= 40; n++) {
+            for (int parts = 1; parts <= 9; parts++) {
+                final Partition partition = Partition.balanced(n, parts);
+                checkCovers(partition, n, parts);
+                for (int i = 0; i < parts; i++) {
+                    assertTrue(partition.getSize(i) == n / parts || partition.getSize(i) == n / parts + 1);
+                }
+            }
+        }
+    }
+
+    public void testWeighted() {
+        final int n = 1000;
+        final int parts = 4;
+        // The right half of the problem costs nine times as much per point
+        final double[] cost = new double[n + 2];
+        for (int j = 1; j <= n; j++) {
+            cost[j] = j <= n / 2 ? 1.0 : 9.0;
+        }
+        final Partition partition = Partition.weighted(cost, n, parts);
+        checkCovers(partition, n, parts);
+
+        final double share = (n / 2 * 1.0 + n / 2 * 9.0) / parts;
+        for (int i = 0; i < parts; i++) {
+            double chunkCost = 0.0;
+            for (int j = partition.getLeft(i); j <= partition.getRight(i); j++) {
+                chunkCost += cost[j];
+            }
+            assertEquals("Unbalanced cost in chunk " + i, share, chunkCost, 9.0);
+        }
+
+        // A single expensive point still leaves no chunk empty
+        final double[] spike = new double[12];
+        spike[3] = 100.0;
+        final Partition spiked = Partition.weighted(spike, 10, 5);
+        checkCovers(spiked, 10, 5);
+        assertEquals(1, spiked.getMinSize());
+    }
+
+    public void testFuzzyBarrierUnevenN() {
+        for (int ntasks = 2; ntasks <= 5; ntasks++) {
+            final int N = 1000 + ntasks - 1;
+            final double[] refNew = createArray(N);
+            final double[] refVal = createArray(N);
+            OneDimAveragingPhaser.runSequential(31, refNew, refVal, N);
+
+            final double[] myNew = createArray(N);
+            final double[] myVal = createArray(N);
+            OneDimAveragingPhaser.runParallelFuzzyBarrier(31, myNew, myVal, N, ntasks);
+            checkResult(refNew, myNew);
+            checkResult(refVal, myVal);
+
+            final double[] cost = new double[N + 2];
+            for (int j = 1; j <= N; j++) {
+                cost[j] = j % 3 + 1;
+            }
+            final double[] weightedNew = createArray(N);
+            final double[] weightedVal = createArray(N);
+            try (OneDimAveragingEngine engine = new OneDimAveragingEngine(ntasks)) {
+                engine.runParallelFuzzyBarrier(31, weightedNew, weightedVal, Partition.weighted(cost, N, ntasks));
+            }
+            checkResult(refNew, weightedNew);
+            checkResult(refVal, weightedVal);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package edu.coursera.parallel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+public class StencilInstrumentationTest extends TestCase {
+    final static private int niterations = 200;
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    private void checkRecorded(final StencilInstrumentation instrumentation, final int ntasks) {
+        assertEquals(ntasks, instrumentation.getTaskCount());
+        for (int i = 0; i < ntasks; i++) {
+            assertTrue(instrumentation.getStartupNanos(i) >= 0);
+            assertTrue(instrumentation.getComputeNanos(i) > 0);
+            assertTrue(instrumentation.getWaitNanos(i) >= 0);
+        }
+        assertTrue(instrumentation.getMaxSkewNanos() >= instrumentation.getMeanSkewNanos());
+        System.out.print(instrumentation.summary());
+    }
+
+    public void testBarrierAndFuzzyBarrier() {
+        final int ntasks = 3;
+        final int N = 30000;
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        OneDimAveragingPhaser.runSequential(niterations, refNew, refVal, N);
+
+        final StencilInstrumentation instrumentation = new StencilInstrumentation(ntasks, niterations);
+
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        OneDimAveragingPhaser.runParallelBarrier(niterations, myNew, myVal, Partition.balanced(N, ntasks),
+                instrumentation);
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+        checkRecorded(instrumentation, ntasks);
+
+        final double[] fuzzyNew = createArray(N);
+        final double[] fuzzyVal = createArray(N);
+        OneDimAveragingPhaser.runParallelFuzzyBarrier(niterations, fuzzyNew, fuzzyVal,
+                Partition.balanced(N, ntasks), NeighbourSync.phaser(ntasks), instrumentation);
+        checkResult(refNew, fuzzyNew);
+        checkResult(refVal, fuzzyVal);
+        checkRecorded(instrumentation, ntasks);
+    }
+
+    public void testRejectsUndersizedBuffers() {
+        final StencilInstrumentation instrumentation = new StencilInstrumentation(2, 10);
+        try {
+            OneDimAveragingPhaser.runParallelBarrier(11, createArray(100), createArray(100),
+                    Partition.balanced(100, 2), instrumentation);
+            fail("Expected more iterations than recorded to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testJfrEvents() throws Exception {
+        final int ntasks = 2;
+        final StencilInstrumentation instrumentation = new StencilInstrumentation(ntasks, niterations);
+        OneDimAveragingPhaser.runParallelBarrier(niterations, createArray(1000), createArray(1000),
+                Partition.balanced(1000, ntasks), instrumentation);
+
+        final Path file = Files.createTempFile("stencil", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("edu.coursera.parallel.StencilTask");
+                recording.enable("edu.coursera.parallel.StencilRun");
+                recording.start();
+                instrumentation.emitJfrEvents();
+                recording.stop();
+                recording.dump(file);
+            }
+            final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            int tasks = 0;
+            int runs = 0;
+            for (RecordedEvent event : events) {
+                if (event.getEventType().getName().equals("edu.coursera.parallel.StencilTask")) {
+                    tasks++;
+                } else if (event.getEventType().getName().equals("edu.coursera.parallel.StencilRun")) {
+                    assertEquals(niterations, event.getInt("iterations"));
+                    runs++;
+                }
+            }
+            assertEquals(ntasks, tasks);
+            assertEquals(1, runs);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
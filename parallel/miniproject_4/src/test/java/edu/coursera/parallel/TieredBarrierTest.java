@@ -0,0 +1,76 @@
+package edu.coursera.parallel;
+
+import java.util.concurrent.Phaser;
+
+import junit.framework.TestCase;
+
+public class TieredBarrierTest extends TestCase {
+    final static private int fanOut = 8;
+    final static private int nrounds = 200;
+
+    private double[] createArray(final int N) {
+        final double[] input = new double[N + 2];
+        input[N + 1] = 1.0;
+        for (int i = 1; i <= N; i += 7) {
+            input[i] = (i % 5) / 4.0;
+        }
+        return input;
+    }
+
+    private void checkResult(final double[] ref, final double[] output) {
+        for (int i = 0; i < ref.length; i++) {
+            String msg = "Mismatch on output at element " + i;
+            assertEquals(msg, ref[i], output[i]);
+        }
+    }
+
+    /*
+     * Time nrounds back-to-back barrier episodes with no work in between and
+     * return the mean latency of one episode.
+     */
+    private double barrierLatency(final TieredBarrier barrier) {
+        final int ntasks = barrier.getTaskCount();
+        final long startTime = System.nanoTime();
+        OneDimAveragingPhaser.runTasks(ntasks, (i) -> {
+            final Phaser ph = barrier.forTask(i);
+            for (int r = 0; r < nrounds; r++) {
+                ph.arriveAndAwaitAdvance();
+            }
+        });
+        return (double) (System.nanoTime() - startTime) / nrounds;
+    }
+
+    public void testTreeShape() {
+        assertEquals(1, new TieredBarrier(8, 8).getDepth());
+        assertEquals(2, new TieredBarrier(9, 8).getDepth());
+        assertEquals(2, new TieredBarrier(64, 8).getDepth());
+        assertEquals(3, new TieredBarrier(256, 8).getDepth());
+
+        final TieredBarrier barrier = new TieredBarrier(20, 4);
+        assertSame(barrier.forTask(0), barrier.forTask(1));
+        assertNotSame(barrier.forTask(0), barrier.forTask(19));
+    }
+
+    public void testTieredBarrierAveraging() {
+        final int N = 10000;
+        final int ntasks = 37;
+        final double[] refNew = createArray(N);
+        final double[] refVal = createArray(N);
+        final double[] myNew = createArray(N);
+        final double[] myVal = createArray(N);
+        OneDimAveragingPhaser.runSequential(100, refNew, refVal, N);
+        OneDimAveragingPhaser.runParallelBarrier(100, myNew, myVal, Partition.balanced(N, ntasks),
+                new TieredBarrier(ntasks, 4), null);
+        checkResult(refNew, myNew);
+        checkResult(refVal, myVal);
+    }
+
+    public void testBarrierLatencyScaling() {
+        for (int ntasks = 4; ntasks <= 256; ntasks *= 4) {
+            final double flat = barrierLatency(new TieredBarrier(ntasks, ntasks));
+            final double tiered = barrierLatency(new TieredBarrier(ntasks, fanOut));
+            System.out.println(String.format("%3d tasks: flat barrier %10.1f ns, tiered (fan-out %d) %10.1f ns",
+                        ntasks, flat, fanOut, tiered));
+        }
+    }
+}